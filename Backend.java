@@ -1,75 +1,117 @@
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.io.BufferedReader;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Backend implements BackendInterface{
+    /**
+     * The number of shortest paths that a backend caches by default.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
     private GraphADT<String, Double> graph;
+    // shortest paths by (start, end), computed from the current graph version
+    private final ResultCache<List<String>, PathResult<String>> pathCache;
+    private long malformedLineCount;
 
     // constructor
     public Backend(GraphADT<String, Double> graph) {
+        this(graph, DEFAULT_CACHE_CAPACITY, ResultCache.Policy.TINY_LFU);
+    }
+
+    /**
+     * Creates a backend that caches the shortest paths it finds. Cached paths
+     * are discarded as soon as the graph is modified.
+     * @param graph the graph to find paths in
+     * @param cacheCapacity the largest number of paths to cache, or 0 to not
+     *        cache any paths
+     * @param cachePolicy the way to pick the path to evict once the cache is full
+     */
+    public Backend(GraphADT<String, Double> graph, int cacheCapacity,
+            ResultCache.Policy cachePolicy) {
         this.graph = graph;
+        this.pathCache = new ResultCache<>(cacheCapacity, cachePolicy);
+    }
+
+    /**
+     * Retrieves the cache of shortest paths, such as to report its hit rate
+     * @return the cache that findShortestPath uses
+     */
+    public ResultCache<List<String>, PathResult<String>> getPathCache() {
+        return pathCache;
     }
 
     /**
      * Goes through the DOT file clearing all the graph data
      * Then creates a new graph clarifying a node or an edge separated by ->
-     * @param filename the path to a dot file to read graph data from
+     * A binary graph file written by GraphFile is loaded as well, without
+     * any parsing, and large dot files are parsed in parallel by a
+     * ParallelDotLoader
+     * @param filename the path to a dot file (or graph file) to read graph data from
      * @throws IOException
      */
     @Override
     public void loadGraphData(String filename) throws IOException {
+        // paths that were found in the old graph data are never valid again
+        pathCache.clear();
+
         // clear existing graph data
         for (String node : graph.getAllNodes()) {
             graph.removeNode(node);
         }
 
-        int nodesAdded = 0;
-        int edgesAdded = 0;
-
-        // open DOT file for reading
-        BufferedReader reader = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = reader.readLine()) != null) {
-            line = line.trim();
-
-            // check line to see if it defines a node or an edge
-            if (line.contains("->")) {
-                try {
-                    // parse edges like "Memorial Union" -> "Science Hall" [seconds=105.8];
-                    String[] parts = line.split("->");
-                    String source = parts[0].trim().replace("\"", ""); // Remove quotes
-
-                    // Split second part on [ to separate target and weight
-                    String[] targetParts = parts[1].split("\\[");
-                    String target = targetParts[0].trim().replace("\"", ""); // Remove quotes
-
-                    // Extract the weight value between = and ]
-                    String weightStr = targetParts[1];
-                    weightStr = weightStr.split("=")[1]; // Get part after =
-                    weightStr = weightStr.split("\\]")[0]; // Get part before ]
-                    weightStr = weightStr.replace(";", ""); // Remove semicolon
-                    double weight = Double.parseDouble(weightStr.trim());
-
-                    // add nodes and edge to graph
-                    graph.insertNode(source);
-                    graph.insertNode(target);
-                    graph.insertEdge(source, target, weight);
-                    edgesAdded++;
-                } catch (Exception e) {
-                    // Skip malformed edge lines
+        // collect all nodes and edges first, and then build the graph in bulk
+        // instead of searching for duplicates with every edge inserted
+        GraphBuilder<String> builder = new GraphBuilder<>();
+        if (GraphFile.isGraphFile(filename)) {
+            builder.addGraph(GraphFile.read(filename));
+            malformedLineCount = 0;
+        } else if (new File(filename).length() >= ParallelDotLoader.MIN_PARALLEL_BYTES) {
+            // large dot files are parsed on all processors at once
+            ParallelDotLoader loader = new ParallelDotLoader();
+            builder.addGraph(loader.load(filename));
+            malformedLineCount = loader.getMalformedLineCount();
+        } else {
+            // parse nodes like "Memorial Union";
+            // and edges like "Memorial Union" -> "Science Hall" [seconds=105.8];
+            DotParser parser = new DotParser(new DotParser.Listener() {
+                @Override
+                public void node(String name) {
+                    builder.addNode(name);
                 }
-            } else if (!line.isEmpty() && !line.startsWith("//") && !line.startsWith("digraph")) {
-                // parse nodes like "Memorial Union";
-                String node = line.replace(";", "").trim().replace("\"", "");
-                graph.insertNode(node);
-                nodesAdded++;
-            }
+
+                @Override
+                public void edge(String source, String target, double weight) {
+                    builder.addEdge(source, target, weight);
+                }
+            });
+            parser.parseFile(filename);
+            // malformed lines are skipped, but counted
+            malformedLineCount = parser.getMalformedLineCount();
         }
-        reader.close();
+        builder.buildInto(graph);
+    }
+
+    /**
+     * Retrieves the number of lines that the last loadGraphData call skipped
+     * because they could not be parsed
+     * @return the number of malformed lines in the last dot file loaded
+     */
+    public long getMalformedLineCount() {
+        return malformedLineCount;
     }
 
     /**
@@ -89,11 +131,7 @@ public class Backend implements BackendInterface{
      */
     @Override
     public List<String> findLocationsOnShortestPath(String startLocation, String endLocation) {
-        try {
-            return graph.shortestPathData(startLocation, endLocation);
-        } catch (NoSuchElementException e) {
-            return Collections.emptyList();
-        }
+        return new ArrayList<>(findShortestPath(startLocation, endLocation).getNodes());
     }
 
     /**
@@ -104,55 +142,352 @@ public class Backend implements BackendInterface{
      */
     @Override
     public List<Double> findTimesOnShortestPath(String startLocation, String endLocation) {
-        List<Double> times = new ArrayList<>();
-        List<String> path = findLocationsOnShortestPath(startLocation, endLocation);
+        // the search already knows the weight of every edge along the path
+        return new ArrayList<>(findShortestPath(startLocation, endLocation).getSegmentCosts());
+    }
 
-        // calculate edge weights between consecutive nodes in the path
-        for (int i = 0; i < path.size() - 1; i++) {
-            String source = path.get(i);
-            String target = path.get(i + 1);
+    /**
+     * Finds the locations, times/edge weights and total time on the shortest path
+     * between start and end locations, all from a single search
+     * @param startLocation the start location of the path
+     * @param endLocation the end location of the path
+     * @return
+     */
+    @Override
+    public PathResult<String> findShortestPath(String startLocation, String endLocation) {
+        // read the version first, so a path computed while the graph is
+        // modified is stored with the older version and then discarded
+        long version = graph.getModificationCount();
+        List<String> key = Arrays.asList(startLocation, endLocation);
+        PathResult<String> path = pathCache.get(key, version);
+        if (path != null) {
+            return path;
+        }
+        try {
+            path = graph.shortestPathResult(startLocation, endLocation);
+        } catch (NoSuchElementException e) {
+            path = PathResult.empty();
+        }
+        pathCache.put(key, path, version);
+        return path;
+    }
 
+    /**
+     * Finds up to count loopless routes between two locations in order of
+     * their walking time, with Yen's algorithm when the graph is a
+     * DijkstraGraph, or only the shortest path on any other graph
+     * @param startLocation the start location of the routes
+     * @param endLocation the end location of the routes
+     * @param count the most routes to find
+     * @return the routes, shortest first, or none if there is no path
+     */
+    @Override
+    public List<PathResult<String>> findAlternativePaths(String startLocation, String endLocation,
+            int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1: " + count);
+        }
+        if (graph instanceof DijkstraGraph) {
             try {
-                // use getEdge to retrieve weight between source and target nodes
-                Double weight = graph.getEdge(source, target).doubleValue();
-                times.add(weight);
+                return ((DijkstraGraph<String, Double>) graph).kShortestPaths(startLocation,
+                        endLocation, count);
             } catch (NoSuchElementException e) {
-                // skip if edge not found
+                return new ArrayList<>();
             }
         }
-        return times;
+        PathResult<String> path = findShortestPath(startLocation, endLocation);
+        return path.isEmpty() ? new ArrayList<>() : new ArrayList<>(List.of(path));
     }
 
     /**
-     * Finds closest destination location from the list of starting locations by minimizing travel cost
-     * @param startLocations the list of locations to minimize travel time from
-     * @return
-     * @throws NoSuchElementException
+     * Finds the shortest paths between many pairs of locations, with one
+     * search per distinct start location, and the searches of different
+     * start locations running in parallel
+     * @param startLocations the start location of each pair
+     * @param endLocations the end location of each pair
+     * @return the result of each pair, in the same order as the pairs
      */
     @Override
-    public String getClosestDestinationFromAll(List<String> startLocations) throws NoSuchElementException {
-        String closestDest = null;
-        double minCost = Double.MAX_VALUE;
+    public List<PathResult<String>> findShortestPaths(List<String> startLocations,
+            List<String> endLocations) {
+        List<PathResult<String>> paths = new ArrayList<>(
+                Collections.nCopies(startLocations.size(), null));
+        // the consumer is never called by two threads at once
+        findShortestPaths(startLocations, endLocations, paths::set);
+        return paths;
+    }
 
-        for (String start : startLocations) {
-            for (String destination : graph.getAllNodes()) {
-                if (!start.equals(destination)) {
-                    try {
-                        double cost = graph.shortestPathCost(start, destination);
-                        if (cost < minCost) {
-                            minCost = cost;
-                            closestDest = destination;
-                        }
-                    } catch (NoSuchElementException e) {
-                        // ignore if no path exists between start and destination
+    /**
+     * Finds the shortest paths between many pairs of locations, and hands
+     * over the results of each start location as soon as they are found
+     * @param startLocations the start location of each pair
+     * @param endLocations the end location of each pair
+     * @param resultConsumer receives the index of each pair with its result
+     */
+    @Override
+    public void findShortestPaths(List<String> startLocations, List<String> endLocations,
+            BiConsumer<Integer, PathResult<String>> resultConsumer) {
+        if (startLocations.size() != endLocations.size()) {
+            throw new IllegalArgumentException(startLocations.size() + " start locations, but "
+                    + endLocations.size() + " end locations");
+        }
+        // the indexes of the pairs that start at each location
+        Map<String, List<Integer>> pairsByStart = new LinkedHashMap<>();
+        for (int i = 0; i < startLocations.size(); i++) {
+            pairsByStart.computeIfAbsent(startLocations.get(i), start -> new ArrayList<>()).add(i);
+        }
+        Object consumerLock = new Object();
+        new ArrayList<>(pairsByStart.entrySet()).parallelStream().forEach(group -> {
+            List<String> ends = new ArrayList<>(group.getValue().size());
+            for (int i : group.getValue()) {
+                ends.add(endLocations.get(i));
+            }
+            List<PathResult<String>> paths = findShortestPathsFrom(group.getKey(), ends);
+            synchronized (consumerLock) {
+                for (int k = 0; k < paths.size(); k++) {
+                    resultConsumer.accept(group.getValue().get(k), paths.get(k));
+                }
+            }
+        });
+    }
+
+    // finds the paths from one start location to several end locations, with
+    // a single search unless there is only one end location
+    private List<PathResult<String>> findShortestPathsFrom(String start, List<String> ends) {
+        if (ends.size() == 1) {
+            return List.of(findShortestPath(start, ends.get(0)));
+        }
+        List<PathResult<String>> paths = new ArrayList<>(ends.size());
+        ShortestPathTree<String> tree;
+        try {
+            tree = graph.shortestPathTree(start);
+        } catch (NoSuchElementException e) {
+            tree = null; // a start location that is not in the graph
+        }
+        for (String end : ends) {
+            if (tree == null || !tree.isReachable(end)) {
+                paths.add(PathResult.empty());
+            } else if (tree instanceof CompactPathTree) {
+                paths.add(((CompactPathTree<String>) tree).getPathResult(end));
+            } else {
+                List<String> nodes = tree.getPath(end);
+                List<Double> segments = new ArrayList<>(nodes.size());
+                for (int i = 1; i < nodes.size(); i++) {
+                    segments.add(graph.getEdge(nodes.get(i - 1), nodes.get(i)));
+                }
+                paths.add(new PathResult<>(nodes, segments, tree.getCost(end)));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Finds the walking times from each origin to each destination, with one
+     * search (or one row of a distance matrix) per distinct origin, and the
+     * origins searched in parallel
+     * @param origins the start locations, one per row
+     * @param destinations the end locations, one per column
+     * @return the walking time from each origin to each destination, or
+     *         infinity where there is no path
+     */
+    @Override
+    public double[][] findTravelTimes(List<String> origins, List<String> destinations) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(origins));
+        double[][] rows = new double[distinct.size()][];
+        IntStream.range(0, distinct.size()).parallel()
+                .forEach(i -> rows[i] = findTravelTimesFrom(distinct.get(i), destinations));
+        // origins that are listed more than once get copies of the same row
+        Map<String, double[]> rowsByOrigin = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            rowsByOrigin.put(distinct.get(i), rows[i]);
+        }
+        double[][] times = new double[origins.size()][];
+        for (int i = 0; i < origins.size(); i++) {
+            double[] row = rowsByOrigin.remove(origins.get(i));
+            times[i] = row != null ? row : times[origins.indexOf(origins.get(i))].clone();
+        }
+        return times;
+    }
+
+    // finds the walking times from one origin to every destination
+    private double[] findTravelTimesFrom(String origin, List<String> destinations) {
+        double[] row = new double[destinations.size()];
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        if (!graph.containsNode(origin)) {
+            return row;
+        }
+        // a distance matrix has the times already, without any search
+        if (graph instanceof DijkstraGraph) {
+            DistanceMatrix<String> matrix = ((DijkstraGraph<String, Double>) graph).getDistanceMatrix();
+            if (matrix != null && !matrix.isStale()) {
+                CompactGraph<String> compact = matrix.getCompactGraph();
+                int from = compact.indexOf(origin);
+                for (int j = 0; j < row.length; j++) {
+                    if (compact.containsNode(destinations.get(j))) {
+                        row[j] = matrix.getCostById(from, compact.indexOf(destinations.get(j)));
                     }
                 }
+                return row;
             }
         }
+        ShortestPathTree<String> tree = graph.shortestPathTree(origin);
+        for (int j = 0; j < row.length; j++) {
+            if (tree.isReachable(destinations.get(j))) {
+                row[j] = tree.getCost(destinations.get(j));
+            }
+        }
+        return row;
+    }
 
-        if (closestDest == null) {
-            throw new NoSuchElementException("No reachable destination found.");
+    /**
+     * Finds the location where a group from several start locations should
+     * meet. There is one search per start location, and these searches run
+     * in parallel. Each search gives a dense array of costs by node id, and
+     * the scan over all nodes reads these arrays directly. It stops adding up
+     * a node's costs as soon as that node cannot beat the best one so far.
+     * @param startLocations the locations that everyone starts from
+     * @param criterion how to combine the travel times from all start locations
+     * @param weights the weight of each start location's travel time for the
+     *        WEIGHTED criterion, or null for the others
+     * @return the meeting point with the lowest score, and the travel time
+     *         from each start location to it
+     * @throws NoSuchElementException if a start location does not exist, or
+     *         if no other location can be reached from all of them
+     */
+    @Override
+    public MeetingPoint<String> findMeetingPoint(List<String> startLocations,
+            MeetingPoint.Criterion criterion, List<Double> weights) throws NoSuchElementException {
+        int k = startLocations.size();
+        double[] weight = meetingWeights(startLocations, criterion, weights);
+        for (String start : startLocations) {
+            if (!graph.containsNode(start)) {
+                throw new NoSuchElementException("Start location not found: " + start);
+            }
         }
-        return closestDest;
+
+        List<ShortestPathTree<String>> trees = IntStream.range(0, k).parallel()
+                .mapToObj(i -> graph.shortestPathTree(startLocations.get(i)))
+                .collect(Collectors.toList());
+        // the cost from each start location to every node, by node id
+        double[][] dist = new double[k][];
+        List<String> nodes;
+        CompactGraph<String> compact = sharedCompactGraph(trees);
+        if (compact != null) {
+            for (int i = 0; i < k; i++) {
+                dist[i] = ((CompactPathTree<String>) trees.get(i)).getDistances();
+            }
+            nodes = new AbstractList<String>() {
+                @Override
+                public String get(int id) {
+                    return compact.nodeAt(id);
+                }
+
+                @Override
+                public int size() {
+                    return compact.getNodeCount();
+                }
+            };
+        } else {
+            List<String> allNodes = graph.getAllNodes();
+            IntStream.range(0, k).parallel().forEach(i -> {
+                dist[i] = new double[allNodes.size()];
+                for (int v = 0; v < allNodes.size(); v++) {
+                    String node = allNodes.get(v);
+                    dist[i][v] = trees.get(i).isReachable(node)
+                            ? trees.get(i).getCost(node) : Double.POSITIVE_INFINITY;
+                }
+            });
+            nodes = allNodes;
+        }
+
+        Set<String> starts = new HashSet<>(startLocations);
+        int best = -1;
+        double bestScore = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < nodes.size(); v++) {
+            double score = 0.0;
+            for (int i = 0; i < k && score < bestScore; i++) {
+                double cost = dist[i][v];
+                // a node that any start cannot reach is never a meeting
+                // point, even for a start weighted 0, where 0 * infinity
+                // would make the score NaN
+                if (cost == Double.POSITIVE_INFINITY) {
+                    score = Double.POSITIVE_INFINITY;
+                } else if (criterion == MeetingPoint.Criterion.MAX) {
+                    score = Math.max(score, cost);
+                } else {
+                    score += weight[i] * cost;
+                }
+            }
+            if (score < bestScore && !starts.contains(nodes.get(v))) {
+                best = v;
+                bestScore = score;
+            }
+        }
+        if (best < 0) {
+            throw new NoSuchElementException("No location can be reached from all of " + startLocations);
+        }
+
+        List<Double> costs = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            costs.add(dist[i][best]);
+        }
+        return new MeetingPoint<>(nodes.get(best), new ArrayList<>(startLocations), costs,
+                criterion, bestScore);
+    }
+
+    // the weight of each start location's travel time in a meeting point's score
+    private static double[] meetingWeights(List<String> startLocations,
+            MeetingPoint.Criterion criterion, List<Double> weights) {
+        if (startLocations.isEmpty()) {
+            throw new IllegalArgumentException("A meeting point needs at least one start location");
+        }
+        double[] weight = new double[startLocations.size()];
+        Arrays.fill(weight, 1.0);
+        if (criterion == MeetingPoint.Criterion.WEIGHTED) {
+            if (weights == null || weights.size() != weight.length) {
+                throw new IllegalArgumentException(weight.length + " start locations need "
+                        + weight.length + " weights, not " + (weights == null ? 0 : weights.size()));
+            }
+            for (int i = 0; i < weight.length; i++) {
+                weight[i] = weights.get(i);
+                // negative weights would make the early exit of the scan wrong
+                if (!(weight[i] >= 0.0 && weight[i] < Double.POSITIVE_INFINITY)) {
+                    throw new IllegalArgumentException("Weights must be finite and not negative: "
+                            + weights.get(i));
+                }
+            }
+        }
+        return weight;
+    }
+
+    // the compact graph that all of these trees were searched in, or null if
+    // they are not all compact trees of the same graph
+    private static CompactGraph<String> sharedCompactGraph(List<ShortestPathTree<String>> trees) {
+        CompactGraph<String> compact = null;
+        for (ShortestPathTree<String> tree : trees) {
+            if (!(tree instanceof CompactPathTree)) {
+                return null;
+            }
+            CompactGraph<String> treeGraph = ((CompactPathTree<String>) tree).getGraph();
+            if (compact != null && treeGraph != compact) {
+                return null;
+            }
+            compact = treeGraph;
+        }
+        return compact;
+    }
+
+    /**
+     * Finds the destination that can be reached from all of the start
+     * locations in the shortest total time, other than the start locations
+     * themselves
+     * @param startLocations the list of locations to minimize travel time from
+     * @return the destination with the lowest sum of travel times
+     * @throws NoSuchElementException if a start location does not exist, or
+     *         if no other location can be reached from all of them
+     */
+    @Override
+    public String getClosestDestinationFromAll(List<String> startLocations) throws NoSuchElementException {
+        return findMeetingPoint(startLocations, MeetingPoint.Criterion.SUM, null).getLocation();
     }
 }
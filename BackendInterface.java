@@ -1,6 +1,7 @@
 import java.io.IOException;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
 /**
  * This is the interface that a backend developer will implement, so that
@@ -52,6 +53,99 @@ public interface BackendInterface {
    */
   public List<Double> findTimesOnShortestPath(String startLocation, String endLocation);
 
+  /**
+   * Return the locations along the shortest path from startLocation to
+   * endLocation, together with the walking times in seconds between each two
+   * of those locations and the total walking time, all computed by a single
+   * shortest path search. If no such path exists, the returned result is 
+   * empty (see PathResult.isEmpty()).
+   * @param startLocation the start location of the path
+   * @param endLocation the end location of the path
+   * @return the locations, walking times and total time along the shortest
+   *         path from startLocation to endLocation
+   */
+  public PathResult<String> findShortestPath(String startLocation, String endLocation);
+
+  /**
+   * Return up to count different routes from startLocation to endLocation,
+   * the shortest one first and then each next shortest one, none of which
+   * visits any location twice. This offers alternatives to the route that
+   * findShortestPath() returns, which is always the first one.
+   * @param startLocation the start location of the routes
+   * @param endLocation the end location of the routes
+   * @param count the most routes to return
+   * @return the locations, walking times and total time along each route,
+   *         in order of increasing total time, or no routes at all if there
+   *         is no path (or either location does not exist)
+   * @throws IllegalArgumentException if count is less than 1
+   */
+  public List<PathResult<String>> findAlternativePaths(String startLocation, String endLocation,
+      int count);
+
+  /**
+   * Finds the shortest paths between many pairs of locations at once: pair i
+   * goes from startLocations.get(i) to endLocations.get(i). The pairs that
+   * share a start location are answered by a single search from it, and
+   * pairs with different start locations are searched in parallel.
+   * @param startLocations the start location of each pair
+   * @param endLocations the end location of each pair
+   * @return the result of each pair (see findShortestPath()), in the same
+   *         order as the pairs, with an empty result when there is no path
+   * @throws IllegalArgumentException if the two lists differ in size
+   */
+  public List<PathResult<String>> findShortestPaths(List<String> startLocations,
+      List<String> endLocations);
+
+  /**
+   * Finds the shortest paths between many pairs of locations at once, just
+   * like findShortestPaths(startLocations, endLocations), but hands every
+   * result to a consumer as soon as it is found, instead of returning them
+   * all at the end. The results arrive grouped by start location, in no
+   * particular order, and the consumer is never called by two threads at
+   * the same time.
+   * @param startLocations the start location of each pair
+   * @param endLocations the end location of each pair
+   * @param resultConsumer receives the index of each pair with its result
+   * @throws IllegalArgumentException if the two lists differ in size
+   */
+  public void findShortestPaths(List<String> startLocations, List<String> endLocations,
+      BiConsumer<Integer, PathResult<String>> resultConsumer);
+
+  /**
+   * Finds the walking times in seconds from each of several origins to each
+   * of several destinations, such as to dispatch people between buildings.
+   * Each origin is searched from once, and the origins are searched in
+   * parallel.
+   * @param origins the start locations, one per row of the result
+   * @param destinations the end locations, one per column of the result
+   * @return a matrix whose row i and column j holds the walking time of the
+   *         shortest path from origins.get(i) to destinations.get(j), or
+   *         infinity if there is no such path (or either location does not
+   *         exist)
+   */
+  public double[][] findTravelTimes(List<String> origins, List<String> destinations);
+
+  /**
+   * Finds the best location for a group to meet, other than the start
+   * locations themselves: the one with the lowest sum of travel times (SUM),
+   * the lowest travel time of whoever arrives last (MAX), or the lowest sum
+   * of weighted travel times (WEIGHTED) from all of the start locations.
+   * The result holds the travel time from each start location as well.
+   * @param startLocations the locations that everyone starts from
+   * @param criterion how to combine the travel times from all start locations
+   * @param weights the weight of each start location's travel time, in the
+   *        same order, for the WEIGHTED criterion (ignored otherwise)
+   * @return the meeting point and the travel time from each start location
+   * @throws NoSuchElementException if any of the start locations does not
+   *         exist within the graph, or if no other location can be reached
+   *         from all of them
+   * @throws IllegalArgumentException if there are no start locations, or if
+   *         the weights are missing, negative or do not match the start
+   *         locations
+   */
+  public MeetingPoint<String> findMeetingPoint(List<String> startLocations,
+      MeetingPoint.Criterion criterion, List<Double> weights) throws NoSuchElementException;
+
   /**
    * Returns the location can be reached from all of the specified start 
    * locations in the shortest total time: minimizing the sum of the travel
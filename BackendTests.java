@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a batch of shortest path requests, a table of travel times or
+ * a meeting point gets the same answers as requesting each path on its own.
+ */
+public class BackendTests {
+
+    /**
+     * Checks random campus pairs, some with a start or end location that
+     * does not exist, both as a list and as a stream of results.
+     */
+    @Test
+    public void testBatchMatchesSinglePaths() throws IOException {
+        Backend backend = new Backend(new DijkstraGraph<>());
+        backend.loadGraphData("campus.dot");
+        List<String> locations = backend.getListOfAllLocations();
+        Random random = new Random(400);
+        List<String> starts = new ArrayList<>();
+        List<String> ends = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            starts.add(locations.get(random.nextInt(10)));
+            ends.add(locations.get(random.nextInt(locations.size())));
+        }
+        starts.add("Nowhere");
+        ends.add(locations.get(0));
+        starts.add(locations.get(0));
+        ends.add("Nowhere");
+        starts.add(locations.get(1));
+        ends.add(locations.get(1));
+
+        // a backend without cached paths answers every single request itself
+        Backend single = new Backend(new DijkstraGraph<>(), 0, ResultCache.Policy.LRU);
+        single.loadGraphData("campus.dot");
+        List<PathResult<String>> batch = backend.findShortestPaths(starts, ends);
+        assertEquals(starts.size(), batch.size());
+        for (int i = 0; i < starts.size(); i++) {
+            PathResult<String> expected = single.findShortestPath(starts.get(i), ends.get(i));
+            assertEquals(expected.getTotalCost(), batch.get(i).getTotalCost(), 1e-9);
+            assertEquals(expected.isEmpty(), batch.get(i).isEmpty());
+        }
+        assertTrue(batch.get(300).isEmpty());
+        assertTrue(batch.get(301).isEmpty());
+        assertEquals(List.of(locations.get(1)), batch.get(302).getNodes());
+
+        // every pair is streamed exactly once
+        int[] seen = new int[starts.size()];
+        backend.findShortestPaths(starts, ends, (index, path) -> seen[index]++);
+        for (int count : seen)
+            assertEquals(1, count);
+        assertThrows(IllegalArgumentException.class,
+                () -> backend.findShortestPaths(starts, ends.subList(0, 5)));
+    }
+
+    /**
+     * Checks that a table of travel times matches the single shortest paths,
+     * both with a distance matrix and with one search per origin.
+     */
+    @Test
+    public void testTravelTimesMatchSinglePaths() throws IOException {
+        Backend single = new Backend(new DijkstraGraph<>(), 0, ResultCache.Policy.LRU);
+        single.loadGraphData("campus.dot");
+        List<String> locations = single.getListOfAllLocations();
+        Random random = new Random(401);
+        List<String> origins = new ArrayList<>();
+        List<String> destinations = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            origins.add(locations.get(random.nextInt(locations.size())));
+            destinations.add(locations.get(random.nextInt(locations.size())));
+        }
+        origins.add(origins.get(0));
+        origins.add("Nowhere");
+        destinations.add("Nowhere");
+
+        Backend searching = new Backend(new DijkstraGraph<>());
+        searching.loadGraphData("campus.dot");
+        DijkstraGraph<String, Double> withMatrix = new DijkstraGraph<>();
+        Backend lookingUp = new Backend(withMatrix);
+        lookingUp.loadGraphData("campus.dot");
+        withMatrix.setDistanceMatrix(DistanceMatrix.build(withMatrix, 2));
+        for (Backend backend : List.of(searching, lookingUp)) {
+            double[][] times = backend.findTravelTimes(origins, destinations);
+            assertEquals(origins.size(), times.length);
+            for (int i = 0; i < origins.size(); i++) {
+                assertEquals(destinations.size(), times[i].length);
+                for (int j = 0; j < destinations.size(); j++) {
+                    PathResult<String> path = single.findShortestPath(origins.get(i), destinations.get(j));
+                    assertEquals(path.isEmpty() ? Double.POSITIVE_INFINITY : path.getTotalCost(),
+                            times[i][j], 1e-9);
+                }
+            }
+            // a repeated origin gets its own copy of the row
+            assertNotSame(times[0], times[12]);
+        }
+        assertFalse(withMatrix.getDistanceMatrix().isStale());
+    }
+
+    /**
+     * Checks every meeting point criterion against the scores of all campus
+     * locations, computed from a table of travel times.
+     */
+    @Test
+    public void testMeetingPointMinimizesEachCriterion() throws IOException {
+        Backend backend = new Backend(new DijkstraGraph<>());
+        backend.loadGraphData("campus.dot");
+        List<String> locations = backend.getListOfAllLocations();
+        List<String> starts = List.of(locations.get(3), locations.get(40), locations.get(100));
+        List<Double> weights = List.of(1.0, 4.0, 0.5);
+        double[][] times = backend.findTravelTimes(starts, locations);
+
+        for (MeetingPoint.Criterion criterion : MeetingPoint.Criterion.values()) {
+            MeetingPoint<String> meetingPoint = backend.findMeetingPoint(starts, criterion, weights);
+            double best = Double.POSITIVE_INFINITY;
+            for (int v = 0; v < locations.size(); v++) {
+                if (starts.contains(locations.get(v)))
+                    continue;
+                double score = 0.0;
+                for (int i = 0; i < starts.size(); i++) {
+                    if (criterion == MeetingPoint.Criterion.MAX)
+                        score = Math.max(score, times[i][v]);
+                    else
+                        score += (criterion == MeetingPoint.Criterion.WEIGHTED ? weights.get(i) : 1.0)
+                                * times[i][v];
+                }
+                best = Math.min(best, score);
+            }
+            assertEquals(best, meetingPoint.getScore(), 1e-9);
+            assertFalse(starts.contains(meetingPoint.getLocation()));
+            int column = locations.indexOf(meetingPoint.getLocation());
+            for (int i = 0; i < starts.size(); i++)
+                assertEquals(times[i][column], meetingPoint.getCosts().get(i), 1e-9);
+        }
+        assertEquals(backend.findMeetingPoint(starts, MeetingPoint.Criterion.SUM, null).getLocation(),
+                backend.getClosestDestinationFromAll(starts));
+
+        assertThrows(NoSuchElementException.class, () -> backend.findMeetingPoint(
+                List.of(locations.get(0), "Nowhere"), MeetingPoint.Criterion.SUM, null));
+        assertThrows(IllegalArgumentException.class, () -> backend.findMeetingPoint(
+                starts, MeetingPoint.Criterion.WEIGHTED, List.of(1.0)));
+        assertThrows(IllegalArgumentException.class, () -> backend.findMeetingPoint(
+                List.of(), MeetingPoint.Criterion.MAX, null));
+    }
+
+    /**
+     * Checks that the closest destination minimizes the total time of all
+     * start locations, rather than the time of the start closest to it.
+     */
+    @Test
+    public void testClosestDestinationMinimizesTotalTime() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (String node : List.of("A", "B", "Near A", "Between"))
+            graph.insertNode(node);
+        graph.insertEdge("A", "Near A", 1.0);
+        graph.insertEdge("B", "Near A", 20.0);
+        graph.insertEdge("A", "Between", 5.0);
+        graph.insertEdge("B", "Between", 5.0);
+        Backend backend = new Backend(graph);
+        MeetingPoint<String> meetingPoint = backend.findMeetingPoint(List.of("A", "B"),
+                MeetingPoint.Criterion.SUM, null);
+        assertEquals("Between", meetingPoint.getLocation());
+        assertEquals(List.of(5.0, 5.0), meetingPoint.getCosts());
+        assertEquals(10.0, meetingPoint.getScore());
+        assertEquals("Between", backend.getClosestDestinationFromAll(List.of("A", "B")));
+    }
+
+    /**
+     * Checks that a start weighted 0 still has to reach the meeting point,
+     * and that there is no meeting point when it reaches none.
+     */
+    @Test
+    public void testZeroWeightStartMustReachMeetingPoint() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (String node : List.of("A", "B", "Near A", "Far"))
+            graph.insertNode(node);
+        graph.insertEdge("A", "Near A", 1.0);
+        graph.insertEdge("A", "Far", 10.0);
+        graph.insertEdge("B", "Far", 10.0);
+        Backend backend = new Backend(graph);
+
+        // B cannot reach Near A, however little its travel time counts
+        MeetingPoint<String> meetingPoint = backend.findMeetingPoint(List.of("A", "B"),
+                MeetingPoint.Criterion.WEIGHTED, List.of(1.0, 0.0));
+        assertEquals("Far", meetingPoint.getLocation());
+        assertEquals(10.0, meetingPoint.getScore());
+        assertEquals(List.of(10.0, 10.0), meetingPoint.getCosts());
+
+        graph.removeEdge("B", "Far");
+        assertThrows(NoSuchElementException.class, () -> backend.findMeetingPoint(
+                List.of("A", "B"), MeetingPoint.Criterion.WEIGHTED, List.of(1.0, 0.0)));
+    }
+}
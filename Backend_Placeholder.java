@@ -2,6 +2,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.io.IOException;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
 /**
  * This is a placeholder for the fully working Backend that will be developed
@@ -40,6 +41,67 @@ public class Backend_Placeholder implements BackendInterface{
         return times;
     }
 
+    // returns the placeholder path with increasing times between locations
+    public PathResult<String> findShortestPath(String startLocation, String endLocation) {
+        List<String> locations = graph.shortestPathData(startLocation,endLocation);
+        List<Double> times = new ArrayList<>();
+        for(int i=1;i<locations.size();i++) times.add(i+1.0);
+        double total = 0;
+        for(double time : times) total += time;
+        return new PathResult<>(locations, times, total);
+    }
+
+    // returns the placeholder path as the only route
+    public List<PathResult<String>> findAlternativePaths(String startLocation, String endLocation,
+            int count) {
+        List<PathResult<String>> paths = new ArrayList<>();
+        paths.add(findShortestPath(startLocation, endLocation));
+        return paths;
+    }
+
+    // finds the placeholder path of each pair, one pair at a time
+    public List<PathResult<String>> findShortestPaths(List<String> startLocations,
+            List<String> endLocations) {
+        List<PathResult<String>> paths = new ArrayList<>();
+        findShortestPaths(startLocations, endLocations, (index, path) -> paths.add(path));
+        return paths;
+    }
+
+    // hands the placeholder path of each pair over in order
+    public void findShortestPaths(List<String> startLocations, List<String> endLocations,
+            BiConsumer<Integer, PathResult<String>> resultConsumer) {
+        if(startLocations.size() != endLocations.size())
+            throw new IllegalArgumentException("Every start location needs an end location");
+        for(int i=0;i<startLocations.size();i++)
+            resultConsumer.accept(i, findShortestPath(startLocations.get(i), endLocations.get(i)));
+    }
+
+    // totals the placeholder times of each path
+    public double[][] findTravelTimes(List<String> origins, List<String> destinations) {
+        double[][] times = new double[origins.size()][destinations.size()];
+        for(int i=0;i<origins.size();i++)
+            for(int j=0;j<destinations.size();j++)
+                times[i][j] = findShortestPath(origins.get(i), destinations.get(j)).getTotalCost();
+        return times;
+    }
+
+    // always meets at the last location, scoring the placeholder times
+    public MeetingPoint<String> findMeetingPoint(List<String> startLocations,
+            MeetingPoint.Criterion criterion, List<Double> weights) throws NoSuchElementException {
+        String location = getClosestDestinationFromAll(startLocations);
+        List<Double> costs = new ArrayList<>();
+        double score = 0;
+        for(int i=0;i<startLocations.size();i++) {
+            List<Double> times = findTimesOnShortestPath(startLocations.get(i), location);
+            double cost = times.isEmpty() ? 0 : times.get(times.size()-1);
+            costs.add(cost);
+            if(criterion == MeetingPoint.Criterion.MAX) score = Math.max(score, cost);
+            else if(criterion == MeetingPoint.Criterion.WEIGHTED) score += weights.get(i) * cost;
+            else score += cost;
+        }
+        return new MeetingPoint<>(location, new ArrayList<>(startLocations), costs, criterion, score);
+    }
+
     // always returns last location
     public String getClosestDestinationFromAll(List<String> startLocations) throws NoSuchElementException {
         List<String> all = graph.getAllNodes();
@@ -38,6 +38,9 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     protected int edgeCount = 0;
     // Edges can be retrieved through the edge lists in either connected node
 
+    // incremented by every change to the nodes or edges of this graph
+    protected long modificationCount = 0;
+
     /**
      * Constructor for BaseGraph that provides the map the graph uses.
      *
@@ -60,6 +63,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         if (nodes.containsKey(data))
             return false; // throws NPE when data's null
         nodes.put(data, new Node(data));
+        modificationCount++;
         return true;
     }
 
@@ -83,6 +87,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         // remove all edges leaving neighboring nodes toward this one
         for (Edge edge : oldNode.edgesEntering)
             edge.predecessor.edgesLeaving.remove(edge);
+        modificationCount++;
         return true;
     }
 
@@ -144,6 +149,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
             predNode.edgesLeaving.add(newEdge);
             succNode.edgesEntering.add(newEdge);
         }
+        modificationCount++;
         return true;
     }
 
@@ -164,6 +170,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
             oldEdge.successor.edgesEntering.remove(oldEdge);
             // and decrement the edge count before removing
             this.edgeCount--;
+            modificationCount++;
             return true;
         } catch (NoSuchElementException e) {
             // when no such edge exists, return false instead
@@ -221,5 +228,30 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         return this.edgeCount;
     }
 
+    /**
+     * Return the number of changes that were made to this graph so far.
+     * Inserting or removing a node, and inserting, updating or removing an
+     * edge, each increase this count, so anything computed from this graph
+     * is out of date once the count differs from when it was computed.
+     *
+     * @return the number of modifications made to this graph
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Counts nodes and edges that were added to this graph directly, through
+     * its node map and edge lists instead of insertNode() and insertEdge(),
+     * as GraphBuilder does to fill a graph all at once.
+     *
+     * @param insertedNodes the number of nodes that were added
+     * @param insertedEdges the number of edges that were added
+     */
+    protected void countInsertions(int insertedNodes, int insertedEdges) {
+        edgeCount += insertedEdges;
+        modificationCount += insertedNodes + insertedEdges;
+    }
+
 }
 
@@ -0,0 +1,470 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This CompactGraph class is a frozen, read-only copy of another graph that
+ * stores its edges in compressed sparse row (CSR) form. Every node is given a
+ * dense int id from 0 to getNodeCount()-1, and the edges leaving node v are
+ * stored at positions offsets[v] (inclusive) through offsets[v+1] (exclusive)
+ * of the primitive targets and weights arrays, sorted by target id. The edges
+ * entering each node are stored the same way in the reverse arrays. Shortest
+ * path searches over this graph (see DijkstraEngine) only touch primitive
+ * arrays, so relaxing an edge neither follows object references nor unboxes a
+ * weight.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class CompactGraph<NodeType> implements GraphADT<NodeType, Double> {
+
+    // node data by id, and the id of each node's data
+    protected final Object[] data;
+    protected final MapADT<NodeType, Integer> ids;
+
+    // edges leaving each node: targets[offsets[v]..offsets[v+1]) and weights
+    protected final int[] offsets;
+    protected final int[] targets;
+    protected final double[] weights;
+
+    // edges entering each node: sources[reverseOffsets[v]..reverseOffsets[v+1])
+    protected final int[] reverseOffsets;
+    protected final int[] sources;
+    protected final double[] reverseWeights;
+
+    // search engines that are not in use, kept so searches do not allocate
+    private final DijkstraEngine[] idleEngines =
+            new DijkstraEngine[Runtime.getRuntime().availableProcessors()];
+    private int idleEngineCount = 0;
+
+    /**
+     * Builds a compact graph from edges that are already in compressed sparse
+     * row form. The edges entering each node are derived from them.
+     *
+     * @param data the node data, indexed by node id
+     * @param offsets where the edges leaving each node start, with one more
+     *        entry at the end for where the last node's edges end
+     * @param targets the id of each edge's successor, sorted within each row
+     * @param weights the weight of each edge
+     */
+    protected CompactGraph(Object[] data, int[] offsets, int[] targets, double[] weights) {
+        int n = data.length;
+        this.data = data;
+        this.ids = new ProbingHashtableMap<>(n * 2);
+        for (int id = 0; id < n; id++) {
+            @SuppressWarnings("unchecked")
+            NodeType node = (NodeType) data[id];
+            ids.put(node, id);
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        // the reverse rows are filled in order of predecessor id, so they are
+        // sorted by source id as well
+        int m = targets.length;
+        this.reverseOffsets = new int[n + 1];
+        for (int i = 0; i < m; i++)
+            reverseOffsets[targets[i] + 1]++;
+        for (int v = 0; v < n; v++)
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        this.sources = new int[m];
+        this.reverseWeights = new double[m];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int slot = next[targets[i]]++;
+                sources[slot] = v;
+                reverseWeights[slot] = weights[i];
+            }
+        }
+    }
+
+    /**
+     * Builds a compact graph from a list of edges between node ids. The edge
+     * arrays may be listed in any order. When more than one edge connects the
+     * same pair of nodes, the one listed last is kept (just like inserting
+     * those edges one after another into a BaseGraph would).
+     *
+     * @param data the node data, indexed by node id
+     * @param preds the id of each edge's predecessor node
+     * @param succs the id of each edge's successor node
+     * @param edgeWeights the weight of each edge
+     * @param edgeCount the number of edges stored in the three edge arrays
+     * @return the compact graph with these nodes and edges
+     */
+    protected static <NodeType> CompactGraph<NodeType> fromEdges(Object[] data, int[] preds,
+            int[] succs, double[] edgeWeights, int edgeCount) {
+        int n = data.length;
+
+        // counting sort the edges by successor first, and then (stably) by
+        // predecessor, so that every row ends up sorted by target id
+        int[] bySucc = countingSort(succs, null, edgeCount, n);
+        int[] byPred = countingSort(preds, bySucc, edgeCount, n);
+
+        // copy the rows over while dropping all but the last duplicate edge
+        int[] rowStart = new int[n + 1];
+        int[] keptTargets = new int[edgeCount];
+        double[] keptWeights = new double[edgeCount];
+        int kept = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            int e = byPred[i];
+            boolean duplicate = i + 1 < edgeCount
+                    && preds[byPred[i + 1]] == preds[e]
+                    && succs[byPred[i + 1]] == succs[e];
+            if (duplicate)
+                continue;
+            rowStart[preds[e] + 1]++;
+            keptTargets[kept] = succs[e];
+            keptWeights[kept] = edgeWeights[e];
+            kept++;
+        }
+        for (int v = 0; v < n; v++)
+            rowStart[v + 1] += rowStart[v];
+        return new CompactGraph<>(data, rowStart, Arrays.copyOf(keptTargets, kept),
+                Arrays.copyOf(keptWeights, kept));
+    }
+
+    // returns the positions of the edges (in order) stably sorted by key
+    private static int[] countingSort(int[] keys, int[] order, int count, int n) {
+        int[] start = new int[n + 1];
+        for (int i = 0; i < count; i++)
+            start[keys[i] + 1]++;
+        for (int v = 0; v < n; v++)
+            start[v + 1] += start[v];
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            int e = order == null ? i : order[i];
+            sorted[start[keys[e]]++] = e;
+        }
+        return sorted;
+    }
+
+    /**
+     * Freezes the current nodes and edges of a graph into a new compact
+     * graph. Later changes to that graph are not reflected in the copy.
+     *
+     * @param graph the graph to copy
+     * @return a compact copy of that graph
+     */
+    public static <NodeType, EdgeType extends Number> CompactGraph<NodeType> freeze(
+            BaseGraph<NodeType, EdgeType> graph) {
+        List<NodeType> all = graph.getAllNodes();
+        Object[] data = all.toArray();
+        MapADT<NodeType, Integer> index = new ProbingHashtableMap<>(data.length * 2);
+        for (int id = 0; id < data.length; id++)
+            index.put(all.get(id), id);
+
+        int edgeCount = graph.getEdgeCount();
+        int[] preds = new int[edgeCount];
+        int[] succs = new int[edgeCount];
+        double[] edgeWeights = new double[edgeCount];
+        int e = 0;
+        for (int id = 0; id < data.length; id++) {
+            for (BaseGraph<NodeType, EdgeType>.Edge edge : graph.nodes.get(all.get(id)).edgesLeaving) {
+                preds[e] = id;
+                succs[e] = index.get(edge.successor.data);
+                edgeWeights[e] = edge.data.doubleValue();
+                e++;
+            }
+        }
+        return fromEdges(data, preds, succs, edgeWeights, e);
+    }
+
+    /**
+     * Returns the id of the node containing the provided data.
+     *
+     * @param node the data item stored in that node
+     * @return the id of that node
+     * @throws NoSuchElementException if no node contains that data
+     */
+    public int indexOf(NodeType node) {
+        if (node == null || !ids.containsKey(node))
+            throw new NoSuchElementException("Node " + node + " not found in graph");
+        return ids.get(node);
+    }
+
+    /**
+     * Returns the data stored in the node with the provided id.
+     *
+     * @param id the id of the node
+     * @return the data stored in that node
+     */
+    @SuppressWarnings("unchecked")
+    public NodeType nodeAt(int id) {
+        return (NodeType) data[id];
+    }
+
+    /**
+     * The compact graph cannot be changed once it is built.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public boolean insertNode(NodeType data) {
+        throw new UnsupportedOperationException("CompactGraph is read-only");
+    }
+
+    /**
+     * The compact graph cannot be changed once it is built.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public boolean removeNode(NodeType data) {
+        throw new UnsupportedOperationException("CompactGraph is read-only");
+    }
+
+    /**
+     * Check whether the graph contains a node with the provided data.
+     *
+     * @param data the node contents to check for
+     * @return true if data item is stored in a node within the graph, or
+     *         false otherwise
+     */
+    public boolean containsNode(NodeType data) {
+        return data != null && ids.containsKey(data);
+    }
+
+    /**
+     * Retrieves a list of all node data from this graph, ordered by node id.
+     *
+     * @return list of all node data
+     */
+    @SuppressWarnings("unchecked")
+    public List<NodeType> getAllNodes() {
+        return Collections.unmodifiableList((List<NodeType>) Arrays.asList(data));
+    }
+
+    /**
+     * Return the number of nodes in the graph
+     *
+     * @return the number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return data.length;
+    }
+
+    /**
+     * The compact graph cannot be changed once it is built.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public boolean insertEdge(NodeType pred, NodeType succ, Double weight) {
+        throw new UnsupportedOperationException("CompactGraph is read-only");
+    }
+
+    /**
+     * The compact graph cannot be changed once it is built.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        throw new UnsupportedOperationException("CompactGraph is read-only");
+    }
+
+    /**
+     * Check if edge is in the graph.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return true if the edge is found in the graph, or false other
+     */
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        if (!containsNode(pred) || !containsNode(succ))
+            return false;
+        return edgeIndex(ids.get(pred), ids.get(succ)) >= 0;
+    }
+
+    /**
+     * Return the data associated with a specific edge.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return the non-negative data from the edge between those nodes
+     * @throws NoSuchElementException if either node or the edge between them
+     *                                are not found within this graph
+     */
+    public Double getEdge(NodeType pred, NodeType succ) {
+        int index = edgeIndex(indexOf(pred), indexOf(succ));
+        if (index < 0)
+            throw new NoSuchElementException("No edge from " + pred + " to " + succ);
+        return weights[index];
+    }
+
+    // binary searches the (sorted) row of pred for succ, or returns -1
+    protected int edgeIndex(int pred, int succ) {
+        int index = Arrays.binarySearch(targets, offsets[pred], offsets[pred + 1], succ);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Return the number of edges in the graph.
+     *
+     * @return the number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * A compact graph is never modified.
+     *
+     * @return always 0
+     */
+    public long getModificationCount() {
+        return 0;
+    }
+
+    /**
+     * Takes an idle search engine for this graph, or creates a new one when
+     * all engines are in use by other threads. The engine must be handed back
+     * through releaseEngine() once its results are no longer needed.
+     *
+     * @return a search engine for this graph
+     */
+    public DijkstraEngine acquireEngine() {
+        synchronized (idleEngines) {
+            if (idleEngineCount > 0) {
+                DijkstraEngine engine = idleEngines[--idleEngineCount];
+                idleEngines[idleEngineCount] = null;
+                return engine;
+            }
+        }
+        return new DijkstraEngine(this);
+    }
+
+    /**
+     * Hands an engine from acquireEngine() back so it can be reused.
+     *
+     * @param engine the engine that is no longer used
+     */
+    public void releaseEngine(DijkstraEngine engine) {
+        synchronized (idleEngines) {
+            if (idleEngineCount < idleEngines.length)
+                idleEngines[idleEngineCount++] = engine;
+        }
+    }
+
+    /**
+     * @return the number of engines that are waiting to be acquired again
+     */
+    public int getIdleEngineCount() {
+        synchronized (idleEngines) {
+            return idleEngineCount;
+        }
+    }
+
+    /**
+     * Returns the nodes, edge weights and total cost along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value, all found by a single search.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the nodes, edge weights and cost of this shortest path
+     * @throws NoSuchElementException if either the start or end node cannot
+     *         be found in the graph, or if there is no directed path from the
+     *         start node to the end node
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        int from = indexOf(start);
+        int to = indexOf(end);
+        DijkstraEngine engine = acquireEngine();
+        try {
+            if (!engine.search(from, to))
+                throw new NoSuchElementException("No path found between " + start + " and " + end);
+            return pathResult(engine.path(to), engine.distance(to));
+        } finally {
+            releaseEngine(engine);
+        }
+    }
+
+    // describes the path through the provided node ids
+    protected PathResult<NodeType> pathResult(int[] path, double cost) {
+        List<NodeType> nodes = new ArrayList<>(path.length);
+        List<Double> segments = new ArrayList<>(Math.max(0, path.length - 1));
+        for (int i = 0; i < path.length; i++) {
+            nodes.add(nodeAt(path[i]));
+            if (i > 0)
+                segments.add(weights[edgeIndex(path[i - 1], path[i])]);
+        }
+        return new PathResult<>(nodes, segments, cost);
+    }
+
+    /**
+     * Searches for the shortest paths from the node with the provided start
+     * value to every node that can be reached from it, with a single run of
+     * Dijkstra's shortest path algorithm.
+     *
+     * @param start the data item in the starting node for the paths
+     * @return the shortest paths from start to every node
+     * @throws NoSuchElementException if the start node cannot be found
+     */
+    public CompactPathTree<NodeType> shortestPathTree(NodeType start) {
+        int from = indexOf(start);
+        DijkstraEngine engine = acquireEngine();
+        try {
+            engine.search(from, -1);
+            return new CompactPathTree<>(this, from, engine.copyDistances(),
+                    engine.copyPredecessors());
+        } finally {
+            releaseEngine(engine);
+        }
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value. This method uses Dijkstra's shortest path algorithm
+     * to find this solution.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     * @throws NoSuchElementException if either the start or end node cannot
+     *         be found in the graph, or if there is no directed path from the
+     *         start node to the end node
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        int from = indexOf(start);
+        int to = indexOf(end);
+        DijkstraEngine engine = acquireEngine();
+        try {
+            if (!engine.search(from, to))
+                throw new NoSuchElementException("No path found between " + start + " and " + end);
+            int[] path = engine.path(to);
+            List<NodeType> result = new ArrayList<>(path.length);
+            for (int v : path)
+                result.add(nodeAt(v));
+            return result;
+        } finally {
+            releaseEngine(engine);
+        }
+    }
+
+    /**
+     * Returns the cost of the path (sum over edge weights) of the shortest
+     * path from the node containing the start data to the node containing the
+     * end data. This method uses Dijkstra's shortest path algorithm to find
+     * this solution.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException if either the start or end node cannot
+     *         be found in the graph, or if there is no directed path from the
+     *         start node to the end node
+     */
+    public double shortestPathCost(NodeType start, NodeType end) {
+        int from = indexOf(start);
+        int to = indexOf(end);
+        DijkstraEngine engine = acquireEngine();
+        try {
+            if (!engine.search(from, to))
+                throw new NoSuchElementException("No path found between " + start + " and " + end);
+            return engine.distance(to);
+        } finally {
+            releaseEngine(engine);
+        }
+    }
+}
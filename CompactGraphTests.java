@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a CompactGraph answers every query the same way as the
+ * DijkstraGraph that it was frozen from.
+ */
+public class CompactGraphTests {
+
+    private DijkstraGraph<String, Double> graph;
+
+    @BeforeEach
+    public void createGraph() {
+        // the same graph that is traced through in DijkstraGraph's tests
+        graph = new DijkstraGraph<>();
+        for (String node : new String[] {"A", "B", "D", "E", "F", "G", "H", "I", "L", "M"})
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 1.0);
+        graph.insertEdge("A", "M", 5.0);
+        graph.insertEdge("A", "H", 7.0);
+        graph.insertEdge("B", "M", 3.0);
+        graph.insertEdge("I", "D", 1.0);
+        graph.insertEdge("I", "H", 2.0);
+        graph.insertEdge("D", "A", 7.0);
+        graph.insertEdge("D", "F", 4.0);
+        graph.insertEdge("D", "G", 2.0);
+        graph.insertEdge("M", "E", 3.0);
+        graph.insertEdge("M", "I", 4.0);
+        graph.insertEdge("F", "G", 9.0);
+        graph.insertEdge("G", "H", 9.0);
+        graph.insertEdge("G", "L", 7.0);
+        graph.insertEdge("G", "A", 4.0);
+        graph.insertEdge("H", "B", 6.0);
+        graph.insertEdge("H", "L", 2.0);
+        graph.insertEdge("H", "I", 2.0);
+    }
+
+    /**
+     * Checks that nodes and edges are copied over, and that the copy is
+     * read-only.
+     */
+    @Test
+    public void testFreezeCopiesNodesAndEdges() {
+        CompactGraph<String> compact = CompactGraph.freeze(graph);
+        assertEquals(10, compact.getNodeCount());
+        assertEquals(18, compact.getEdgeCount());
+        assertTrue(compact.containsNode("G"));
+        assertFalse(compact.containsNode("Z"));
+        assertTrue(compact.containsEdge("G", "A"));
+        assertFalse(compact.containsEdge("A", "G"));
+        assertEquals(4.0, compact.getEdge("G", "A"));
+        assertThrows(NoSuchElementException.class, () -> compact.getEdge("A", "G"));
+        assertEquals("G", compact.nodeAt(compact.indexOf("G")));
+        assertThrows(UnsupportedOperationException.class, () -> compact.insertNode("Z"));
+    }
+
+    /**
+     * Checks the shortest paths that are traced through in lecture.
+     */
+    @Test
+    public void testShortestPaths() {
+        CompactGraph<String> compact = CompactGraph.freeze(graph);
+        assertEquals(List.of("D", "G", "H", "I"), compact.shortestPathData("D", "I"));
+        assertEquals(13.0, compact.shortestPathCost("D", "I"));
+        assertEquals(List.of("A", "B", "M", "I", "D"), compact.shortestPathData("A", "D"));
+        assertEquals(9.0, compact.shortestPathCost("A", "D"));
+        assertEquals(List.of("A"), compact.shortestPathData("A", "A"));
+        assertThrows(NoSuchElementException.class, () -> compact.shortestPathData("E", "G"));
+        assertThrows(NoSuchElementException.class, () -> compact.shortestPathCost("A", "Z"));
+    }
+
+    /**
+     * Checks that one shortest path tree answers every destination.
+     */
+    @Test
+    public void testShortestPathTree() {
+        CompactGraph<String> compact = CompactGraph.freeze(graph);
+        CompactPathTree<String> tree = compact.shortestPathTree("B");
+        assertEquals(List.of("B", "M", "I", "H", "L"), tree.getPath("L"));
+        assertEquals(11.0, tree.getCost("L"));
+        assertEquals(11.0, tree.getDistances()[compact.indexOf("L")]);
+        assertEquals(List.of("B"), tree.getPath("B"));
+        assertFalse(compact.shortestPathTree("E").isReachable("A"));
+        assertThrows(NoSuchElementException.class, () -> compact.shortestPathTree("E").getPath("A"));
+    }
+
+    /**
+     * Checks that a search which stopped at its target can be resumed for
+     * other targets, and settles the same nodes as a single search would.
+     */
+    @Test
+    public void testResumedSearch() {
+        CompactGraph<String> compact = CompactGraph.freeze(graph);
+        CompactPathTree<String> tree = compact.shortestPathTree("D");
+        DijkstraEngine engine = compact.acquireEngine();
+        assertThrows(IllegalStateException.class, () -> new DijkstraEngine(compact).resume(0));
+
+        assertTrue(engine.search(compact.indexOf("D"), compact.indexOf("G")));
+        int settled = engine.getSettledCount();
+        assertTrue(engine.resume(compact.indexOf("G")));
+        assertEquals(settled, engine.getSettledCount());
+        assertTrue(engine.resume(compact.indexOf("I")));
+        assertTrue(engine.getSettledCount() > settled);
+        assertEquals(13.0, engine.distance(compact.indexOf("I")));
+        assertEquals(compact.indexOf("H"), engine.predecessor(compact.indexOf("I")));
+        assertTrue(engine.resume(-1));
+        assertTrue(engine.isFinished());
+        assertEquals(10, engine.getSettledCount());
+        for (String node : compact.getAllNodes())
+            assertEquals(tree.getCost(node), engine.distance(compact.indexOf(node)));
+        compact.releaseEngine(engine);
+    }
+
+    /**
+     * Checks every pair of campus locations against the DijkstraGraph.
+     */
+    @Test
+    public void testCampusGraphMatchesDijkstraGraph() throws IOException {
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        new Backend(campus).loadGraphData("campus.dot");
+        CompactGraph<String> compact = CompactGraph.freeze(campus);
+        assertEquals(campus.getNodeCount(), compact.getNodeCount());
+
+        List<String> locations = campus.getAllNodes();
+        for (String start : locations.subList(0, 10)) {
+            for (String end : locations) {
+                double expected;
+                try {
+                    expected = campus.shortestPathCost(start, end);
+                } catch (NoSuchElementException e) {
+                    assertThrows(NoSuchElementException.class,
+                            () -> compact.shortestPathCost(start, end));
+                    continue;
+                }
+                assertEquals(expected, compact.shortestPathCost(start, end), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Checks that one engine that is reused for many searches, in the way
+     * that searches reuse pooled engines, finds the same costs as a fresh
+     * engine for every search. How little memory reused searches allocate is
+     * measured by ShortestPathBenchmark.engineSearch (with -prof gc).
+     */
+    @Test
+    public void testReusedEngineMatchesFreshEngines() throws IOException {
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        new Backend(campus).loadGraphData("campus.dot");
+        CompactGraph<String> compact = CompactGraph.freeze(campus);
+        DijkstraEngine engine = compact.acquireEngine();
+        int n = compact.getNodeCount();
+        for (int i = 0; i < 2000; i++) {
+            int source = i % n;
+            int target = (i * 31) % n;
+            DijkstraEngine fresh = new DijkstraEngine(compact);
+            assertEquals(fresh.search(source, target), engine.search(source, target));
+            assertEquals(fresh.distance(target), engine.distance(target));
+            assertEquals(fresh.getSettledCount(), engine.getSettledCount());
+        }
+        compact.releaseEngine(engine);
+    }
+}
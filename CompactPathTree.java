@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A CompactPathTree is a ShortestPathTree over the int node ids of a
+ * CompactGraph. It stores one dense distance array and one predecessor array,
+ * both indexed by node id, so looking up a destination's cost is an array
+ * access and looking up its path is a walk along the predecessor array.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class CompactPathTree<NodeType> implements ShortestPathTree<NodeType> {
+
+    private final CompactGraph<NodeType> graph;
+    private final int start;
+    // cost of the shortest path to each node, or infinity when unreachable
+    private final double[] dist;
+    // id of the node before each node on its shortest path, or -1
+    private final int[] pred;
+
+    /**
+     * Creates a tree from the labels of a finished single source search.
+     *
+     * @param graph the graph that was searched
+     * @param start the id of the node the search started from
+     * @param dist the shortest distance to every node (infinity if none)
+     * @param pred the predecessor of every node (-1 for start or if none)
+     */
+    public CompactPathTree(CompactGraph<NodeType> graph, int start, double[] dist, int[] pred) {
+        this.graph = graph;
+        this.start = start;
+        this.dist = dist;
+        this.pred = pred;
+    }
+
+    /**
+     * @return the graph that this tree was computed for
+     */
+    public CompactGraph<NodeType> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the id of the node that every path starts from
+     */
+    public int getStartId() {
+        return start;
+    }
+
+    /**
+     * Returns the dense array of shortest path costs, indexed by node id, with
+     * infinity for nodes that cannot be reached. The array is shared with this
+     * tree and must not be modified.
+     *
+     * @return the cost to reach every node in the graph
+     */
+    public double[] getDistances() {
+        return dist;
+    }
+
+    /**
+     * @param id the id of the destination node
+     * @return the cost of the shortest path to that node, or infinity
+     */
+    public double getCostById(int id) {
+        return dist[id];
+    }
+
+    /**
+     * @param id the id of a node
+     * @return the id of the node before it on its shortest path, or -1
+     */
+    public int getPredecessorId(int id) {
+        return pred[id];
+    }
+
+    public NodeType getStart() {
+        return graph.nodeAt(start);
+    }
+
+    public boolean isReachable(NodeType end) {
+        return graph.containsNode(end) && dist[graph.indexOf(end)] < Double.POSITIVE_INFINITY;
+    }
+
+    public double getCost(NodeType end) {
+        return dist[reachableIndexOf(end)];
+    }
+
+    public List<NodeType> getPath(NodeType end) {
+        int[] ids = pathIds(reachableIndexOf(end));
+        List<NodeType> path = new ArrayList<>(ids.length);
+        for (int v : ids)
+            path.add(graph.nodeAt(v));
+        return path;
+    }
+
+    /**
+     * Returns the nodes, edge weights and total cost along the shortest path
+     * from the start node to a destination.
+     *
+     * @param end the destination node
+     * @return the shortest path from start to end
+     * @throws NoSuchElementException if end cannot be reached from start
+     */
+    public PathResult<NodeType> getPathResult(NodeType end) {
+        int to = reachableIndexOf(end);
+        return graph.pathResult(pathIds(to), dist[to]);
+    }
+
+    // the ids along the path to a reachable node, starting with start
+    private int[] pathIds(int to) {
+        int length = 1;
+        for (int v = to; v != start; v = pred[v])
+            length++;
+        int[] path = new int[length];
+        for (int v = to; length > 0; v = pred[v])
+            path[--length] = v;
+        return path;
+    }
+
+    // returns the id of end, or throws when it cannot be reached
+    private int reachableIndexOf(NodeType end) {
+        int id = graph.indexOf(end);
+        if (dist[id] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("No path found between " + getStart() + " and " + end);
+        return id;
+    }
+}
@@ -0,0 +1,653 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A ContractionHierarchy answers point to point shortest path queries after
+ * preprocessing a graph once. The preprocessing contracts the nodes one at a
+ * time, from least to most important: a contracted node is removed from the
+ * remaining graph, and for every pair of its neighbors whose shortest path
+ * ran through it, a shortcut edge with the cost of that path is added between
+ * them. Each shortcut remembers the two edges it replaces, so it can be
+ * unpacked into the original edges again.
+ *
+ * The position at which a node was contracted is its rank. Every shortest
+ * path in the graph (with shortcuts) can then be found as an upward path from
+ * the start node, followed by a downward path to the end node, so a query
+ * runs two small searches that only follow edges towards higher ranks: one
+ * forward from the start node and one backward from the end node.
+ *
+ * A hierarchy describes its graph as it was when it was built. Once that
+ * graph is modified, isStale() returns true, and the hierarchy must be built
+ * again before its answers can be trusted.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class ContractionHierarchy<NodeType> {
+
+    // the most nodes that one witness search settles before it gives up, and
+    // a shortcut is added even though a path around the node may exist
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    // the same limit for the searches that only estimate a node's priority
+    private static final int PRIORITY_SETTLE_LIMIT = 10;
+    // how much the edge difference counts towards a node's priority,
+    // compared to the number of its neighbors that were contracted already
+    private static final int EDGE_DIFFERENCE_WEIGHT = 4;
+
+    private final BaseGraph<NodeType, ?> graph;
+    private final long modificationCount;
+    private final CompactGraph<NodeType> compact;
+    // the node id at each rank, and the rank of each node id
+    private final int[] order;
+    private final int[] rank;
+    // edges from each rank r to higher ranks, at indices upOffsets[r] through
+    // upOffsets[r+1]-1. For a shortcut, upFirst is the index of the downward
+    // edge and upSecond the index of the upward edge that it replaces, both
+    // are -1 for an original edge.
+    private final int[] upOffsets;
+    private final int[] upSources;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upFirst;
+    private final int[] upSecond;
+    // edges into each rank r from higher ranks, stored in the same way
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final int[] downTargets;
+    private final double[] downWeights;
+    private final int[] downFirst;
+    private final int[] downSecond;
+    private final int shortcutCount;
+
+    // query state that is not in use, kept so queries do not allocate it
+    private final Query[] idleQueries = new Query[Runtime.getRuntime().availableProcessors()];
+    private int idleQueryCount = 0;
+
+    /**
+     * A growable list of edges to (or from) other nodes, with the weight of
+     * each edge and the node that it skips (-1 for an original edge).
+     */
+    private static final class Edges {
+        int[] nodes = new int[4];
+        double[] weights = new double[4];
+        int[] middles = new int[4];
+        int size = 0;
+
+        void add(int node, double weight, int middle) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        int indexOf(int node) {
+            for (int i = 0; i < size; i++)
+                if (nodes[i] == node)
+                    return i;
+            return -1;
+        }
+
+        void remove(int node) {
+            int i = indexOf(node);
+            if (i < 0)
+                return;
+            size--;
+            nodes[i] = nodes[size];
+            weights[i] = weights[size];
+            middles[i] = middles[size];
+        }
+    }
+
+    /**
+     * The state of the contraction while a hierarchy is being built: the
+     * edges between the nodes that are not contracted yet, and the search
+     * that looks for witnesses (paths that avoid the node being contracted).
+     */
+    private static final class Contractor {
+        final Edges[] out;
+        final Edges[] in;
+        // the number of neighbors of each node that were contracted already
+        final int[] contractedNeighbors;
+        final IndexedHeap witnessHeap;
+        final double[] witnessDist;
+        final int[] witnessStamp;
+        int witnessGeneration = 0;
+
+        Contractor(CompactGraph<?> compact) {
+            int n = compact.getNodeCount();
+            out = new Edges[n];
+            in = new Edges[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new Edges();
+                in[v] = new Edges();
+            }
+            for (int v = 0; v < n; v++) {
+                for (int i = compact.offsets[v]; i < compact.offsets[v + 1]; i++) {
+                    int w = compact.targets[i];
+                    if (w == v)
+                        continue; // a loop is never part of a shortest path
+                    out[v].add(w, compact.weights[i], -1);
+                    in[w].add(v, compact.weights[i], -1);
+                }
+            }
+            contractedNeighbors = new int[n];
+            witnessHeap = new IndexedHeap(n);
+            witnessDist = new double[n];
+            witnessStamp = new int[n];
+        }
+
+        // searches from source without passing skip or exceeding maxCost
+        void witnessSearch(int source, int skip, double maxCost, int settleLimit) {
+            witnessHeap.clear();
+            if (++witnessGeneration == Integer.MAX_VALUE) {
+                Arrays.fill(witnessStamp, 0);
+                witnessGeneration = 1;
+            }
+            witnessStamp[source] = witnessGeneration;
+            witnessDist[source] = 0;
+            witnessHeap.offer(source, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled++ < settleLimit) {
+                int x = witnessHeap.poll();
+                Edges edges = out[x];
+                for (int j = 0; j < edges.size; j++) {
+                    int y = edges.nodes[j];
+                    double cost = witnessDist[x] + edges.weights[j];
+                    if (y == skip || cost > maxCost)
+                        continue;
+                    if (witnessStamp[y] != witnessGeneration || cost < witnessDist[y]) {
+                        witnessStamp[y] = witnessGeneration;
+                        witnessDist[y] = cost;
+                        witnessHeap.offer(y, cost);
+                    }
+                }
+            }
+        }
+
+        // the cost of the cheapest path that the last witness search found
+        double witness(int node) {
+            return witnessStamp[node] == witnessGeneration
+                    ? witnessDist[node] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Counts (and unless simulate is true, adds) the shortcuts that are
+         * needed to contract v: one for each in-neighbor u and out-neighbor w
+         * of v that have no witness path that is as cheap as the path through v.
+         */
+        int shortcuts(int v, boolean simulate) {
+            Edges into = in[v];
+            Edges from = out[v];
+            int count = 0;
+            for (int a = 0; a < into.size; a++) {
+                int u = into.nodes[a];
+                double maxCost = -1;
+                for (int b = 0; b < from.size; b++)
+                    if (from.nodes[b] != u)
+                        maxCost = Math.max(maxCost, into.weights[a] + from.weights[b]);
+                if (maxCost < 0)
+                    continue; // v leads nowhere else from u
+                witnessSearch(u, v, maxCost,
+                        simulate ? PRIORITY_SETTLE_LIMIT : WITNESS_SETTLE_LIMIT);
+                for (int b = 0; b < from.size; b++) {
+                    int w = from.nodes[b];
+                    double viaCost = into.weights[a] + from.weights[b];
+                    if (w == u || witness(w) <= viaCost)
+                        continue;
+                    count++;
+                    if (!simulate)
+                        addShortcut(u, w, viaCost, v);
+                }
+            }
+            return count;
+        }
+
+        // adds an edge from u to w, or makes the existing one cheaper
+        void addShortcut(int u, int w, double weight, int middle) {
+            int i = out[u].indexOf(w);
+            if (i < 0) {
+                out[u].add(w, weight, middle);
+                in[w].add(u, weight, middle);
+            } else if (weight < out[u].weights[i]) {
+                out[u].weights[i] = weight;
+                out[u].middles[i] = middle;
+                int j = in[w].indexOf(u);
+                in[w].weights[j] = weight;
+                in[w].middles[j] = middle;
+            }
+        }
+
+        // how attractive it is to contract v next, lower values come first
+        int priority(int v) {
+            int edgeDifference = shortcuts(v, true) - in[v].size - out[v].size;
+            return EDGE_DIFFERENCE_WEIGHT * edgeDifference + contractedNeighbors[v];
+        }
+
+        // removes v from the remaining graph, after its shortcuts were added
+        void remove(int v) {
+            for (int b = 0; b < out[v].size; b++) {
+                in[out[v].nodes[b]].remove(v);
+                contractedNeighbors[out[v].nodes[b]]++;
+            }
+            for (int a = 0; a < in[v].size; a++) {
+                out[in[v].nodes[a]].remove(v);
+                contractedNeighbors[in[v].nodes[a]]++;
+            }
+            out[v] = null;
+            in[v] = null;
+        }
+    }
+
+    /**
+     * Preprocesses the current nodes and edges of a graph into a hierarchy.
+     * Nodes are contracted in order of their edge difference (the number of
+     * shortcuts they need minus the number of edges they remove) and the
+     * number of their neighbors that were contracted already, which keeps the
+     * number of shortcuts low and spreads the contraction over the graph.
+     *
+     * @param graph the graph to preprocess
+     * @return the hierarchy of that graph
+     */
+    public static <NodeType, EdgeType extends Number> ContractionHierarchy<NodeType> build(
+            BaseGraph<NodeType, EdgeType> graph) {
+        return new ContractionHierarchy<>(graph, graph.getModificationCount(),
+                CompactGraph.freeze(graph));
+    }
+
+    private ContractionHierarchy(BaseGraph<NodeType, ?> graph, long modificationCount,
+            CompactGraph<NodeType> compact) {
+        this.graph = graph;
+        this.modificationCount = modificationCount;
+        this.compact = compact;
+        int n = compact.getNodeCount();
+        Contractor contractor = new Contractor(compact);
+
+        IndexedHeap queue = new IndexedHeap(n);
+        for (int v = 0; v < n; v++)
+            queue.offer(v, contractor.priority(v));
+
+        // the edges that each node still has when it is contracted are the
+        // ones to higher ranks, they are collected in order of rank here,
+        // with node ids that are turned into ranks afterwards
+        order = new int[n];
+        rank = new int[n];
+        Edges up = new Edges();
+        Edges down = new Edges();
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        int shortcuts = 0;
+        int next = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            // the priorities of other nodes may have grown since they were
+            // last updated, so check whether v is still the best choice now
+            int priority = contractor.priority(v);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                queue.offer(v, priority);
+                continue;
+            }
+            shortcuts += contractor.shortcuts(v, false);
+            order[next] = v;
+            rank[v] = next;
+            Edges out = contractor.out[v];
+            for (int b = 0; b < out.size; b++)
+                up.add(out.nodes[b], out.weights[b], out.middles[b]);
+            Edges in = contractor.in[v];
+            for (int a = 0; a < in.size; a++)
+                down.add(in.nodes[a], in.weights[a], in.middles[a]);
+            next++;
+            upOffsets[next] = up.size;
+            downOffsets[next] = down.size;
+            contractor.remove(v);
+            for (int b = 0; b < out.size; b++)
+                queue.update(out.nodes[b], contractor.priority(out.nodes[b]));
+            for (int a = 0; a < in.size; a++)
+                if (out.indexOf(in.nodes[a]) < 0)
+                    queue.update(in.nodes[a], contractor.priority(in.nodes[a]));
+        }
+        this.shortcutCount = shortcuts;
+
+        upSources = new int[up.size];
+        upTargets = new int[up.size];
+        upWeights = Arrays.copyOf(up.weights, up.size);
+        for (int r = 0; r < n; r++) {
+            for (int i = upOffsets[r]; i < upOffsets[r + 1]; i++) {
+                upSources[i] = r;
+                upTargets[i] = rank[up.nodes[i]];
+            }
+        }
+        downSources = new int[down.size];
+        downTargets = new int[down.size];
+        downWeights = Arrays.copyOf(down.weights, down.size);
+        for (int r = 0; r < n; r++) {
+            for (int i = downOffsets[r]; i < downOffsets[r + 1]; i++) {
+                downSources[i] = rank[down.nodes[i]];
+                downTargets[i] = r;
+            }
+        }
+
+        // a shortcut from u to w that skips m replaces the downward edge from
+        // u to m and the upward edge from m to w, which are both stored with
+        // m (the lowest of the three ranks)
+        upFirst = new int[up.size];
+        upSecond = new int[up.size];
+        for (int i = 0; i < up.size; i++) {
+            int middle = up.middles[i] < 0 ? -1 : rank[up.middles[i]];
+            upFirst[i] = middle < 0 ? -1 : findDown(middle, upSources[i]);
+            upSecond[i] = middle < 0 ? -1 : findUp(middle, upTargets[i]);
+        }
+        downFirst = new int[down.size];
+        downSecond = new int[down.size];
+        for (int i = 0; i < down.size; i++) {
+            int middle = down.middles[i] < 0 ? -1 : rank[down.middles[i]];
+            downFirst[i] = middle < 0 ? -1 : findDown(middle, downSources[i]);
+            downSecond[i] = middle < 0 ? -1 : findUp(middle, downTargets[i]);
+        }
+    }
+
+    // the index of the upward edge from rank to target
+    private int findUp(int rank, int target) {
+        for (int i = upOffsets[rank]; i < upOffsets[rank + 1]; i++)
+            if (upTargets[i] == target)
+                return i;
+        throw new IllegalStateException("Missing half of a shortcut through rank " + rank);
+    }
+
+    // the index of the downward edge from source to rank
+    private int findDown(int rank, int source) {
+        for (int i = downOffsets[rank]; i < downOffsets[rank + 1]; i++)
+            if (downSources[i] == source)
+                return i;
+        throw new IllegalStateException("Missing half of a shortcut through rank " + rank);
+    }
+
+    /**
+     * The labels of the forward and backward search of one query, see
+     * search(). Labels are cleared between queries by bumping a generation
+     * number, as in DijkstraEngine.
+     */
+    private static final class Query {
+        final IndexedHeap forwardHeap;
+        final IndexedHeap backwardHeap;
+        final double[] forwardDist;
+        final double[] backwardDist;
+        // the edge through which each rank was reached by each search
+        final int[] forwardEdge;
+        final int[] backwardEdge;
+        final int[] forwardStamp;
+        final int[] backwardStamp;
+        int generation = 0;
+        int meeting;
+
+        Query(int n) {
+            forwardHeap = new IndexedHeap(n);
+            backwardHeap = new IndexedHeap(n);
+            forwardDist = new double[n];
+            backwardDist = new double[n];
+            forwardEdge = new int[n];
+            backwardEdge = new int[n];
+            forwardStamp = new int[n];
+            backwardStamp = new int[n];
+        }
+    }
+
+    /**
+     * Runs the forward search from s and the backward search from t, always
+     * advancing the one whose next rank is closer, until neither can find a
+     * path cheaper than the best one found so far. A rank that is settled
+     * along a path that is more expensive than a path through a higher rank
+     * (which one of its downward edges reveals) is stalled: its edges are not
+     * followed, because no shortest path continues upward from it.
+     *
+     * @return the cost of the shortest path from s to t, or infinity if there
+     *         is none. When there is one, query.meeting is set to the rank
+     *         where its upward and downward halves meet.
+     */
+    private double search(Query query, int s, int t) {
+        query.forwardHeap.clear();
+        query.backwardHeap.clear();
+        if (++query.generation == Integer.MAX_VALUE) {
+            Arrays.fill(query.forwardStamp, 0);
+            Arrays.fill(query.backwardStamp, 0);
+            query.generation = 1;
+        }
+        int generation = query.generation;
+        double[] forwardDist = query.forwardDist;
+        double[] backwardDist = query.backwardDist;
+        int[] forwardStamp = query.forwardStamp;
+        int[] backwardStamp = query.backwardStamp;
+        forwardStamp[s] = generation;
+        forwardDist[s] = 0;
+        query.forwardEdge[s] = -1;
+        query.forwardHeap.offer(s, 0);
+        backwardStamp[t] = generation;
+        backwardDist[t] = 0;
+        query.backwardEdge[t] = -1;
+        query.backwardHeap.offer(t, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        query.meeting = -1;
+        while (true) {
+            double forwardMin = query.forwardHeap.isEmpty()
+                    ? Double.POSITIVE_INFINITY : query.forwardHeap.peekKey();
+            double backwardMin = query.backwardHeap.isEmpty()
+                    ? Double.POSITIVE_INFINITY : query.backwardHeap.peekKey();
+            // neither search can still find a path cheaper than best
+            if (Math.min(forwardMin, backwardMin) >= best)
+                return best;
+            if (forwardMin <= backwardMin) {
+                int v = query.forwardHeap.poll();
+                double cost = forwardDist[v];
+                if (backwardStamp[v] == generation && cost + backwardDist[v] < best) {
+                    best = cost + backwardDist[v];
+                    query.meeting = v;
+                }
+                if (stalled(v, cost, downOffsets, downSources, downWeights,
+                        forwardDist, forwardStamp, generation))
+                    continue;
+                for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                    int w = upTargets[i];
+                    double newCost = cost + upWeights[i];
+                    if (forwardStamp[w] != generation || newCost < forwardDist[w]) {
+                        forwardStamp[w] = generation;
+                        forwardDist[w] = newCost;
+                        query.forwardEdge[w] = i;
+                        query.forwardHeap.offer(w, newCost);
+                    }
+                }
+            } else {
+                int v = query.backwardHeap.poll();
+                double cost = backwardDist[v];
+                if (forwardStamp[v] == generation && forwardDist[v] + cost < best) {
+                    best = forwardDist[v] + cost;
+                    query.meeting = v;
+                }
+                if (stalled(v, cost, upOffsets, upTargets, upWeights,
+                        backwardDist, backwardStamp, generation))
+                    continue;
+                for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+                    int u = downSources[i];
+                    double newCost = cost + downWeights[i];
+                    if (backwardStamp[u] != generation || newCost < backwardDist[u]) {
+                        backwardStamp[u] = generation;
+                        backwardDist[u] = newCost;
+                        query.backwardEdge[u] = i;
+                        query.backwardHeap.offer(u, newCost);
+                    }
+                }
+            }
+        }
+    }
+
+    // whether a higher rank that one search reached has a cheaper path to v
+    private static boolean stalled(int v, double cost, int[] offsets, int[] neighbors,
+            double[] weights, double[] dist, int[] stamp, int generation) {
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            int u = neighbors[i];
+            if (stamp[u] == generation && dist[u] + weights[i] < cost)
+                return true;
+        }
+        return false;
+    }
+
+    private Query acquireQuery() {
+        synchronized (idleQueries) {
+            if (idleQueryCount > 0) {
+                Query query = idleQueries[--idleQueryCount];
+                idleQueries[idleQueryCount] = null;
+                return query;
+            }
+        }
+        return new Query(order.length);
+    }
+
+    private void releaseQuery(Query query) {
+        synchronized (idleQueries) {
+            if (idleQueryCount < idleQueries.length)
+                idleQueries[idleQueryCount++] = query;
+        }
+    }
+
+    /**
+     * Returns the nodes, edge weights and total cost along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value, with every shortcut unpacked into original edges.
+     * Its cost always matches that of a Dijkstra search, but when several
+     * paths tie for the lowest cost, this may return a different one of them.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the nodes, edge weights and cost of this shortest path
+     * @throws NoSuchElementException if either the start or end node cannot
+     *         be found in the graph, or if there is no directed path from the
+     *         start node to the end node
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        int s = rank[compact.indexOf(start)];
+        int t = rank[compact.indexOf(end)];
+        Query query = acquireQuery();
+        try {
+            if (search(query, s, t) == Double.POSITIVE_INFINITY)
+                throw new NoSuchElementException("No path found between " + start + " and " + end);
+
+            // a stack of the edges that still need to be unpacked, with the
+            // next one on top, where upward edges are stored as their index i
+            // and downward edges as -1-i. The downward half from the meeting
+            // rank to t is pushed first, from its last edge to its first, and
+            // then the upward half from the meeting rank back to s.
+            int[] stack = new int[64];
+            int top = 0;
+            for (int r = query.meeting; query.backwardEdge[r] >= 0; r = downTargets[query.backwardEdge[r]]) {
+                if (top == stack.length)
+                    stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = -1 - query.backwardEdge[r];
+            }
+            for (int i = 0, j = top - 1; i < j; i++, j--) {
+                int swap = stack[i];
+                stack[i] = stack[j];
+                stack[j] = swap;
+            }
+            for (int r = query.meeting; query.forwardEdge[r] >= 0; r = upSources[query.forwardEdge[r]]) {
+                if (top == stack.length)
+                    stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = query.forwardEdge[r];
+            }
+            return unpack(s, stack, top);
+        } finally {
+            releaseQuery(query);
+        }
+    }
+
+    // lists the original edges behind the edges on a stack, top first
+    private PathResult<NodeType> unpack(int start, int[] stack, int top) {
+        List<NodeType> nodes = new ArrayList<>();
+        List<Double> segments = new ArrayList<>();
+        nodes.add(compact.nodeAt(order[start]));
+        double total = 0;
+        while (top > 0) {
+            int edge = stack[--top];
+            boolean upward = edge >= 0;
+            int i = upward ? edge : -1 - edge;
+            int first = upward ? upFirst[i] : downFirst[i];
+            if (first < 0) {
+                double weight = upward ? upWeights[i] : downWeights[i];
+                nodes.add(compact.nodeAt(order[upward ? upTargets[i] : downTargets[i]]));
+                segments.add(weight);
+                total += weight;
+                continue;
+            }
+            // replace the shortcut with its two halves, the first on top
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = upward ? upSecond[i] : downSecond[i];
+            stack[top++] = -1 - first;
+        }
+        return new PathResult<>(nodes, segments, total);
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     * @throws NoSuchElementException if either node cannot be found, or if
+     *         there is no directed path between them
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        return shortestPathResult(start, end).getNodes();
+    }
+
+    /**
+     * Returns the cost of the shortest path from the node containing the
+     * start data to the node containing the end data, without unpacking it.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException if either node cannot be found, or if
+     *         there is no directed path between them
+     */
+    public double shortestPathCost(NodeType start, NodeType end) {
+        int s = rank[compact.indexOf(start)];
+        int t = rank[compact.indexOf(end)];
+        Query query = acquireQuery();
+        try {
+            double cost = search(query, s, t);
+            if (cost == Double.POSITIVE_INFINITY)
+                throw new NoSuchElementException("No path found between " + start + " and " + end);
+            return cost;
+        } finally {
+            releaseQuery(query);
+        }
+    }
+
+    /**
+     * @return the graph that this hierarchy was built from
+     */
+    public BaseGraph<NodeType, ?> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true if the graph was modified after this hierarchy was built
+     */
+    public boolean isStale() {
+        return graph.getModificationCount() != modificationCount;
+    }
+
+    /**
+     * @return the number of shortcut edges that were added while building
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a ContractionHierarchy finds shortest paths of the same cost as
+ * Dijkstra's algorithm, made of the graph's original edges, and that a
+ * DijkstraGraph stops using a hierarchy once it is modified.
+ */
+public class ContractionHierarchyTests {
+
+    private DijkstraGraph<String, Double> graph;
+
+    @BeforeEach
+    public void createGraph() {
+        // the same graph that is traced through in DijkstraGraph's tests
+        graph = new DijkstraGraph<>();
+        for (String node : new String[] {"A", "B", "D", "E", "F", "G", "H", "I", "L", "M"})
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 1.0);
+        graph.insertEdge("A", "M", 5.0);
+        graph.insertEdge("A", "H", 7.0);
+        graph.insertEdge("B", "M", 3.0);
+        graph.insertEdge("I", "D", 1.0);
+        graph.insertEdge("I", "H", 2.0);
+        graph.insertEdge("D", "A", 7.0);
+        graph.insertEdge("D", "F", 4.0);
+        graph.insertEdge("D", "G", 2.0);
+        graph.insertEdge("M", "E", 3.0);
+        graph.insertEdge("M", "I", 4.0);
+        graph.insertEdge("F", "G", 9.0);
+        graph.insertEdge("G", "H", 9.0);
+        graph.insertEdge("G", "L", 7.0);
+        graph.insertEdge("G", "A", 4.0);
+        graph.insertEdge("H", "B", 6.0);
+        graph.insertEdge("H", "L", 2.0);
+        graph.insertEdge("H", "I", 2.0);
+    }
+
+    /**
+     * Checks the shortest paths that are traced through in lecture.
+     */
+    @Test
+    public void testShortestPaths() {
+        ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(graph);
+        assertEquals(List.of("D", "G", "H", "I"), hierarchy.shortestPathData("D", "I"));
+        assertEquals(13.0, hierarchy.shortestPathCost("D", "I"));
+        assertEquals(List.of("B", "M", "I", "H", "L"), hierarchy.shortestPathData("B", "L"));
+        assertEquals(List.of(3.0, 4.0, 2.0, 2.0),
+                hierarchy.shortestPathResult("B", "L").getSegmentCosts());
+        assertEquals(List.of("A"), hierarchy.shortestPathData("A", "A"));
+        assertThrows(NoSuchElementException.class, () -> hierarchy.shortestPathData("E", "G"));
+        assertThrows(NoSuchElementException.class, () -> hierarchy.shortestPathCost("A", "Z"));
+    }
+
+    /**
+     * Checks every pair of campus locations: the cost must match a Dijkstra
+     * search, and the unpacked path must follow the graph's own edges.
+     */
+    @Test
+    public void testCampusGraphMatchesDijkstra() throws IOException {
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        new Backend(campus).loadGraphData("campus.dot");
+        CompactGraph<String> compact = CompactGraph.freeze(campus);
+        ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(campus);
+
+        for (String start : campus.getAllNodes()) {
+            CompactPathTree<String> tree = compact.shortestPathTree(start);
+            for (String end : campus.getAllNodes()) {
+                if (!tree.isReachable(end)) {
+                    assertThrows(NoSuchElementException.class,
+                            () -> hierarchy.shortestPathResult(start, end));
+                    continue;
+                }
+                PathResult<String> result = hierarchy.shortestPathResult(start, end);
+                assertEquals(tree.getCost(end), result.getTotalCost(), 1e-9);
+                List<String> path = result.getNodes();
+                assertEquals(start, path.get(0));
+                assertEquals(end, path.get(path.size() - 1));
+                for (int i = 0; i + 1 < path.size(); i++)
+                    assertEquals(campus.getEdge(path.get(i), path.get(i + 1)),
+                            result.getSegmentCosts().get(i));
+            }
+        }
+    }
+
+    /**
+     * Checks that the graph answers from its hierarchy until it is modified,
+     * and searches the modified graph afterwards.
+     */
+    @Test
+    public void testStaleHierarchyFallsBackToDijkstra() {
+        ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(graph);
+        graph.setContractionHierarchy(hierarchy);
+        assertEquals(List.of("D", "G", "H", "I"), graph.shortestPathData("D", "I"));
+        assertEquals(List.of(2.0, 9.0, 2.0),
+                graph.shortestPathResult("D", "I").getSegmentCosts());
+
+        graph.insertEdge("D", "I", 1.0);
+        assertTrue(hierarchy.isStale());
+        assertEquals(List.of("D", "I"), graph.shortestPathData("D", "I"));
+        assertEquals(1.0, graph.shortestPathCost("D", "I"));
+
+        DijkstraGraph<String, Double> other = new DijkstraGraph<>();
+        assertThrows(IllegalArgumentException.class,
+                () -> other.setContractionHierarchy(hierarchy));
+    }
+}
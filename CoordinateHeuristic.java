@@ -0,0 +1,110 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * A CoordinateHeuristic estimates the cost of the path between two nodes from
+ * the straight line distance between their (x, y) coordinates. That distance
+ * is converted into a cost with the smallest cost per unit of distance of any
+ * edge in the graph, so the estimate never exceeds the cost of a real path,
+ * and never drops by more than an edge's weight across that edge.
+ *
+ * Coordinates can be loaded from a text file (for example campus.coords next
+ * to campus.dot) with one node per line: the node's name, x and y separated
+ * by tabs. Blank lines and lines starting with // are ignored.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class CoordinateHeuristic<NodeType> implements Heuristic<NodeType> {
+
+    private final MapADT<NodeType, double[]> coordinates;
+    // cost per unit of straight line distance, never above any edge's
+    private final double costPerDistance;
+
+    /**
+     * Creates a heuristic for the nodes of the provided graph. When any node
+     * in the graph has no coordinates, every estimate is 0.0, which is still
+     * admissible but no longer steers the search.
+     *
+     * @param graph the graph that will be searched
+     * @param coordinates the {x, y} coordinates of each node in that graph
+     */
+    public <EdgeType extends Number> CoordinateHeuristic(BaseGraph<NodeType, EdgeType> graph,
+            MapADT<NodeType, double[]> coordinates) {
+        this.coordinates = coordinates;
+        double minimum = Double.POSITIVE_INFINITY;
+        for (NodeType data : graph.getAllNodes()) {
+            if (!coordinates.containsKey(data)) {
+                minimum = 0.0;
+                break;
+            }
+            for (BaseGraph<NodeType, EdgeType>.Edge edge : graph.nodes.get(data).edgesLeaving) {
+                if (!coordinates.containsKey(edge.successor.data)) {
+                    continue; // reported when the loop reaches that node
+                }
+                double distance = distance(data, edge.successor.data);
+                if (distance > 0) {
+                    minimum = Math.min(minimum, edge.data.doubleValue() / distance);
+                }
+            }
+        }
+        this.costPerDistance = minimum == Double.POSITIVE_INFINITY ? 0.0 : minimum;
+    }
+
+    /**
+     * Reads node coordinates from a tab separated text file.
+     *
+     * @param filename the path of the coordinates file
+     * @return the {x, y} coordinates of each node named in that file
+     * @throws IOException if the file cannot be read, or has a line that is
+     *         not a name followed by two numbers
+     */
+    public static MapADT<String, double[]> loadCoordinates(String filename) throws IOException {
+        MapADT<String, double[]> coordinates = new ProbingHashtableMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.trim().startsWith("//")) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                try {
+                    String name = parts[0].trim().replace("\"", "");
+                    double[] xy = {Double.parseDouble(parts[1].trim()),
+                            Double.parseDouble(parts[2].trim())};
+                    if (coordinates.containsKey(name)) {
+                        coordinates.remove(name);
+                    }
+                    coordinates.put(name, xy);
+                } catch (RuntimeException e) {
+                    throw new IOException("Bad coordinates on line " + lineNumber
+                            + " of " + filename + ": " + line);
+                }
+            }
+        }
+        return coordinates;
+    }
+
+    /**
+     * @return the cost that each unit of straight line distance is worth
+     */
+    public double getCostPerDistance() {
+        return costPerDistance;
+    }
+
+    // straight line distance between the coordinates of two nodes
+    private double distance(NodeType from, NodeType to) {
+        double[] a = coordinates.get(from);
+        double[] b = coordinates.get(to);
+        return Math.hypot(a[0] - b[0], a[1] - b[1]);
+    }
+
+    public double estimate(NodeType from, NodeType to) {
+        if (costPerDistance == 0.0) {
+            return 0.0;
+        }
+        return costPerDistance * distance(from, to);
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * A DijkstraEngine runs Dijkstra's shortest path algorithm over the int node
+ * ids of one CompactGraph, and can be reused for any number of searches. Its
+ * distance and predecessor arrays are allocated once, and are "cleared"
+ * between searches by bumping a generation number instead of being refilled:
+ * a node's labels only count when its stamp matches the current generation.
+ * Together with an IndexedHeap (which updates keys in place instead of adding
+ * duplicate entries), a search does not allocate any memory at all. A search
+ * that stopped once it settled its target keeps its labels and its heap, so
+ * it can be resumed for more targets from the same source.
+ *
+ * A masked search (see searchMasked()) skips some nodes and edges without
+ * modifying the graph, and settles nodes in the order of their distance plus
+ * a lower bound on their remaining distance to the target, so that it heads
+ * straight for the target. This is what finding alternative paths (see
+ * KShortestPaths) needs, since it searches the same graph many times with
+ * different parts of it left out.
+ *
+ * An engine is not thread safe. Each thread that searches at the same time
+ * must use its own engine, see CompactGraph.acquireEngine().
+ */
+public class DijkstraEngine {
+
+    private final CompactGraph<?> graph;
+    private final IndexedHeap heap;
+    private final double[] dist;
+    private final int[] pred;
+    // generation in which each node was last reached, labels are stale
+    // unless this matches the current generation
+    private final int[] reached;
+    private int generation;
+    private int source;
+    private int settledCount;
+    // the direction of the edges that the last search follows
+    private int[] edgeOffsets;
+    private int[] edgeTargets;
+    private double[] edgeWeights;
+    // the mask and lower bounds of the last search, if it was masked
+    private int[] nodeMask;
+    private int[] edgeMask;
+    private int mask;
+    private double[] bounds;
+
+    /**
+     * Creates an engine that searches the provided graph.
+     *
+     * @param graph the graph to search
+     */
+    public DijkstraEngine(CompactGraph<?> graph) {
+        int n = graph.getNodeCount();
+        this.graph = graph;
+        this.heap = new IndexedHeap(n);
+        this.dist = new double[n];
+        this.pred = new int[n];
+        this.reached = new int[n];
+        this.generation = 0;
+        this.source = -1;
+    }
+
+    /**
+     * @return the graph that this engine searches
+     */
+    public CompactGraph<?> getGraph() {
+        return graph;
+    }
+
+    // forgets all labels from the previous search
+    private void reset() {
+        heap.clear();
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(reached, 0);
+            generation = 1;
+        }
+        settledCount = 0;
+    }
+
+    /**
+     * Searches from source until target has been settled, or until every
+     * node that can be reached from source has been settled when target is
+     * -1. Afterwards, distance() and predecessor() describe the shortest
+     * paths to every node that was settled.
+     *
+     * @param source the id of the node to search from
+     * @param target the id of the node to search for, or -1 for all nodes
+     * @return true if target was reached (always true when target is -1)
+     */
+    public boolean search(int source, int target) {
+        return run(source, target, graph.offsets, graph.targets, graph.weights);
+    }
+
+    /**
+     * Searches backward from source along the edges entering each node,
+     * until target has been settled, or until every node that can reach
+     * source has been settled when target is -1. Afterwards, distance()
+     * is the cost of the shortest path from each settled node to source, and
+     * predecessor() is the next node along that path.
+     *
+     * @param source the id of the node that the paths lead to
+     * @param target the id of the node to search for, or -1 for all nodes
+     * @return true if target was reached (always true when target is -1)
+     */
+    public boolean searchBackward(int source, int target) {
+        return run(source, target, graph.reverseOffsets, graph.sources, graph.reverseWeights);
+    }
+
+    /**
+     * Searches forward from source until target has been settled, like
+     * search(), but as if some nodes and edges were not in the graph. The
+     * masks are compared with a mask value instead of holding booleans, so a
+     * caller can mask a different part of the graph for each search by
+     * incrementing the mask value, without clearing the masks.
+     *
+     * Nodes are settled in the order of their distance plus their bound, as
+     * in A*. The bounds must not overestimate the remaining distance and
+     * must be consistent, which the distances from a backward search from
+     * target always are, however much of the graph is masked.
+     *
+     * @param source the id of the node to search from, which is never masked
+     * @param target the id of the node to search for
+     * @param nodeMask node v is skipped when nodeMask[v] == mask
+     * @param edgeMask the edge at index i of the graph's edge arrays is
+     *        skipped when edgeMask[i] == mask
+     * @param mask the mask value of this search
+     * @param bounds a lower bound on the distance from each node to target,
+     *        with infinity for nodes that cannot reach target
+     * @return true if target was reached
+     */
+    public boolean searchMasked(int source, int target, int[] nodeMask, int[] edgeMask,
+            int mask, double[] bounds) {
+        reset();
+        this.source = source;
+        this.edgeOffsets = graph.offsets;
+        this.edgeTargets = graph.targets;
+        this.edgeWeights = graph.weights;
+        this.nodeMask = nodeMask;
+        this.edgeMask = edgeMask;
+        this.mask = mask;
+        this.bounds = bounds;
+
+        label(source, 0, -1);
+        heap.offer(source, bounds[source]);
+        return expandMasked(target);
+    }
+
+    // Dijkstra's algorithm over one direction of the graph's edges
+    private boolean run(int source, int target, int[] offsets, int[] targets, double[] weights) {
+        reset();
+        this.source = source;
+        this.edgeOffsets = offsets;
+        this.edgeTargets = targets;
+        this.edgeWeights = weights;
+        this.bounds = null;
+
+        label(source, 0, -1);
+        heap.offer(source, 0);
+        return expand(target);
+    }
+
+    /**
+     * Continues the last search from the nodes that it had reached but not
+     * settled yet, until target has been settled as well, or until every
+     * node that can be reached has been settled when target is -1. The
+     * labels of the nodes that were settled before are kept, so a target
+     * that is settled already is found without settling any more nodes.
+     *
+     * @param target the id of the node to search for, or -1 for all nodes
+     * @return true if target was reached (always true when target is -1)
+     * @throws IllegalStateException if this engine has not searched yet
+     */
+    public boolean resume(int target) {
+        if (source < 0)
+            throw new IllegalStateException("There is no search to resume");
+        if (target >= 0 && isSettled(target))
+            return true;
+        return bounds != null ? expandMasked(target) : expand(target);
+    }
+
+    /**
+     * @return true if the last search has settled every node that it can
+     *         reach, so resuming it would not settle any more nodes
+     */
+    public boolean isFinished() {
+        return source >= 0 && heap.isEmpty();
+    }
+
+    // settles nodes until target is settled, or until none are left
+    private boolean expand(int target) {
+        int[] offsets = edgeOffsets;
+        int[] targets = edgeTargets;
+        double[] weights = edgeWeights;
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            settledCount++;
+            double cost = dist[v];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                double newCost = cost + weights[i];
+                if (reached[w] == generation && newCost >= dist[w])
+                    continue; // settled nodes always end up here as well
+                label(w, newCost, v);
+                heap.offer(w, newCost);
+            }
+            // the edges of target are followed too, so that resuming from
+            // here finds the paths through target as well
+            if (v == target)
+                return true;
+        }
+        return target < 0;
+    }
+
+    // settles nodes like expand(), but skips masked nodes and edges and
+    // orders the heap by distance plus bound, in a separate loop so that
+    // unmasked searches do not pay for any of this
+    private boolean expandMasked(int target) {
+        int[] offsets = edgeOffsets;
+        int[] targets = edgeTargets;
+        double[] weights = edgeWeights;
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            settledCount++;
+            double cost = dist[v];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                if (edgeMask[i] == mask || nodeMask[w] == mask
+                        || bounds[w] == Double.POSITIVE_INFINITY)
+                    continue;
+                double newCost = cost + weights[i];
+                if (reached[w] == generation && newCost >= dist[w])
+                    continue;
+                label(w, newCost, v);
+                heap.offer(w, newCost + bounds[w]);
+            }
+            if (v == target)
+                return true;
+        }
+        return target < 0;
+    }
+
+    private void label(int v, double cost, int predecessor) {
+        reached[v] = generation;
+        dist[v] = cost;
+        pred[v] = predecessor;
+    }
+
+    /**
+     * @param v the id of a node
+     * @return true if the last search settled v (its distance is final)
+     */
+    public boolean isSettled(int v) {
+        return reached[v] == generation && !heap.contains(v);
+    }
+
+    /**
+     * @param v the id of a node
+     * @return the shortest distance from the last search's source to v, or
+     *         infinity when v was not settled by that search
+     */
+    public double distance(int v) {
+        return isSettled(v) ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param v the id of a node
+     * @return the id of the node before v along its shortest path, or -1 for
+     *         the source and for nodes that were not settled
+     */
+    public int predecessor(int v) {
+        return isSettled(v) ? pred[v] : -1;
+    }
+
+    /**
+     * @return the id of the node that the last search started from
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * @return the number of nodes that the last search settled so far
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * @return a new array with the distance() of every node, by id
+     */
+    public double[] copyDistances() {
+        double[] copy = new double[dist.length];
+        for (int v = 0; v < copy.length; v++)
+            copy[v] = distance(v);
+        return copy;
+    }
+
+    /**
+     * @return a new array with the predecessor() of every node, by id
+     */
+    public int[] copyPredecessors() {
+        int[] copy = new int[pred.length];
+        for (int v = 0; v < copy.length; v++)
+            copy[v] = predecessor(v);
+        return copy;
+    }
+
+    /**
+     * Copies the ids of the nodes along the shortest path from the last
+     * search's source to target into a new array.
+     *
+     * @param target the id of a settled node
+     * @return the ids along that path, starting with source
+     */
+    public int[] path(int target) {
+        int length = 1;
+        for (int v = target; v != source; v = pred[v])
+            length++;
+        int[] path = new int[length];
+        for (int v = target; length > 0; v = pred[v])
+            path[--length] = v;
+        return path;
+    }
+}
@@ -7,6 +7,7 @@
 // Lecturer: Gary
 // Notes to Grader:
 
+import java.util.Comparator;
 import java.util.PriorityQueue;
 import java.util.List;
 import java.util.LinkedList;
@@ -34,7 +35,10 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * field. The total cost of this path is stored in its cost field. And the
      * predecessor SearchNode within this path is referened by the predecessor
      * field (this field is null within the SearchNode containing the starting
-     * node in its node field).
+     * node in its node field). The weight of the edge from that predecessor
+     * to this node is stored in the edgeCost field. During an A* search, the
+     * estimate field holds the heuristic's estimate of the remaining cost from
+     * this node to the end node (it stays 0 otherwise).
      *
      * SearchNodes are Comparable and are sorted by cost so that the lowest cost
      * SearchNode has the highest priority within a java.util.PriorityQueue.
@@ -43,11 +47,19 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         public Node node;
         public double cost;
         public SearchNode predecessor;
+        public double edgeCost;
+        public double estimate;
 
         public SearchNode(Node node, double cost, SearchNode predecessor) {
+            this(node, cost, predecessor,
+                    predecessor == null ? 0 : cost - predecessor.cost);
+        }
+
+        public SearchNode(Node node, double cost, SearchNode predecessor, double edgeCost) {
             this.node = node;
             this.cost = cost;
             this.predecessor = predecessor;
+            this.edgeCost = edgeCost;
         }
 
         public int compareTo(SearchNode other) {
@@ -59,11 +71,340 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         }
     }
 
+    // when true, point to point searches run from both ends at once
+    private volatile boolean bidirectional = false;
+    // when not null, point to point searches run A* with this heuristic
+    private volatile Heuristic<NodeType> heuristic = null;
+    // when not null and up to date, point to point searches query it instead
+    private volatile ContractionHierarchy<NodeType> hierarchy = null;
+    // all pairs shortest paths, or null to search for each path
+    private volatile DistanceMatrix<NodeType> distanceMatrix = null;
+
+    // the most memory that cached shortest path trees may use, 0 for none
+    private volatile long treeCacheBytes = 0;
+    // the trees cached for the current version of this graph, built lazily
+    private volatile TreeCache treeCache = null;
+
+    // a compact copy of the current version of this graph for searches that
+    // need one and have no tree cache to take it from, built lazily
+    private volatile CompactGraph<NodeType> compactCopy = null;
+    private volatile long compactCopyVersion = -1;
+
+    // allowed rounding error when checking that a heuristic is consistent
+    private static final double CONSISTENCY_TOLERANCE = 1e-9;
+    // memory used by one node of a cached search that has not finished yet:
+    // its distance, predecessor and stamp, and its DijkstraEngine heap slot
+    private static final int TREE_BYTES_PER_NODE = 2 * Double.BYTES + 4 * Integer.BYTES;
+
+    /**
+     * A reasonable amount of memory for setTreeCacheBytes(): 32 MB holds
+     * about 1,000 trees for a graph with 1,000 nodes.
+     */
+    public static final long DEFAULT_TREE_CACHE_BYTES = 32L << 20;
+
     /**
      * Constructor that sets the map that the graph uses.
      */
     public DijkstraGraph() {
-        super(new HashtableMap<>());
+        super(new ProbingHashtableMap<>());
+    }
+
+    /**
+     * Selects whether point to point searches (shortestPathData(),
+     * shortestPathCost() and shortestPathResult()) search forward from the
+     * start node only, or from both the start and the end node at once. Both
+     * kinds of search find paths with the same cost (and the same path, unless
+     * several paths tie for the lowest cost), but the bidirectional search
+     * usually settles far fewer nodes on large graphs.
+     *
+     * @param bidirectional true to search from both ends, false (the default)
+     *        to search forward only
+     */
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    /**
+     * @return true if point to point searches run from both ends at once
+     */
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    /**
+     * Selects a heuristic that makes point to point searches run the A*
+     * algorithm: nodes are settled in order of their cost from the start node
+     * plus the heuristic's estimate of their remaining cost to the end node,
+     * so that nodes in the direction of the end node are settled first. An
+     * admissible heuristic always finds a shortest path. A* searches take
+     * precedence over bidirectional searches.
+     *
+     * When assertions are enabled (java -ea), every edge that an A* search
+     * follows is checked for consistency, and an AssertionError reports the
+     * first edge whose weight is less than the drop in the estimate across it.
+     *
+     * @param heuristic the heuristic to search with, or null (the default) to
+     *        run Dijkstra's algorithm
+     */
+    public void setHeuristic(Heuristic<NodeType> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * @return the heuristic that point to point searches run A* with, or null
+     */
+    public Heuristic<NodeType> getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * Selects a contraction hierarchy that answers point to point searches
+     * instead of any kind of Dijkstra search, for as long as this graph is not
+     * modified. Once it is, searches fall back to the search selected by
+     * setHeuristic() and setBidirectional(), until a hierarchy is built for
+     * the modified graph.
+     *
+     * @param hierarchy a hierarchy built from this graph, or null (the
+     *        default) to always run Dijkstra searches
+     * @throws IllegalArgumentException if hierarchy was built from another graph
+     */
+    public void setContractionHierarchy(ContractionHierarchy<NodeType> hierarchy) {
+        if (hierarchy != null && hierarchy.getGraph() != this) {
+            throw new IllegalArgumentException("Contraction hierarchy was built for another graph");
+        }
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * @return the contraction hierarchy selected for point to point searches,
+     *         which may be stale, or null
+     */
+    public ContractionHierarchy<NodeType> getContractionHierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Selects a distance matrix that answers point to point searches by
+     * looking them up, for as long as this graph is not modified. It takes
+     * precedence over every other kind of search, so that shortestPathCost()
+     * takes constant time and the other point to point searches take time
+     * proportional to the length of the path. Once this graph is modified,
+     * searches fall back to the other kinds of search, until a matrix is
+     * built for the modified graph.
+     *
+     * @param matrix a matrix built from this graph, or null (the default) to
+     *        search for every path
+     * @throws IllegalArgumentException if matrix was built from another graph
+     */
+    public void setDistanceMatrix(DistanceMatrix<NodeType> matrix) {
+        if (matrix != null && matrix.getGraph() != this) {
+            throw new IllegalArgumentException("Distance matrix was built for another graph");
+        }
+        this.distanceMatrix = matrix;
+    }
+
+    /**
+     * @return the distance matrix selected for point to point searches, which
+     *         may be stale, or null
+     */
+    public DistanceMatrix<NodeType> getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    /**
+     * Selects how much memory may be used to cache shortest path trees, so
+     * that searches from a start node that was searched from before are
+     * answered by walking its cached tree. Each tree holds a distance and a
+     * predecessor for every node, and is grown by a Dijkstra search on a
+     * compact copy of this graph that pauses as soon as the end node of a
+     * search is settled. A later search from the same start node to a node
+     * that is settled already is answered right away, and a search to any
+     * other node resumes the paused search from where it stopped, until the
+     * tree reaches every node it can. The cache keeps the trees of the most
+     * frequently used start nodes once it is full, and it is discarded
+     * whenever this graph is modified.
+     *
+     * A cached tree takes precedence over any other kind of search, except
+     * for a distance matrix. When no tree is cached for the start node, point
+     * to point searches start and cache one, unless a contraction hierarchy,
+     * a heuristic or a bidirectional search answers them, since those settle
+     * far fewer nodes than a tree that has to be grown up to the end node.
+     * Trees that shortestPathTree() returns are always cached, and always
+     * complete.
+     *
+     * @param bytes the most memory that cached trees may use, or 0 (the
+     *        default) to not cache any trees
+     */
+    public void setTreeCacheBytes(long bytes) {
+        this.treeCacheBytes = Math.max(0, bytes);
+        this.treeCache = null;
+    }
+
+    /**
+     * @return the most memory that cached shortest path trees may use
+     */
+    public long getTreeCacheBytes() {
+        return treeCacheBytes;
+    }
+
+    /**
+     * Returns the cache of shortest path trees for the current version of
+     * this graph, such as to report its hit rate.
+     *
+     * @return the cached trees by start node, or null when trees are not cached
+     */
+    public ResultCache<NodeType, ?> getTreeCache() {
+        TreeCache cache = currentTreeCache();
+        return cache == null ? null : cache.trees;
+    }
+
+    /**
+     * The shortest path trees that were computed for one version of this
+     * graph, on a compact copy of that version.
+     */
+    private class TreeCache {
+        final long version;
+        final long bytes;
+        final CompactGraph<NodeType> compact;
+        final ResultCache<NodeType, TreeSearch> trees;
+
+        TreeCache(long version, long bytes) {
+            this.version = version;
+            this.bytes = bytes;
+            this.compact = CompactGraph.freeze(DijkstraGraph.this);
+            // paused searches that the cache lets go of drop their engines
+            this.trees = new ResultCache<>(treeCacheCapacity(bytes, compact.getNodeCount()),
+                    ResultCache.Policy.TINY_LFU, TreeSearch::discard);
+        }
+
+        // the cached tree from start, or null when it is not cached
+        TreeSearch cached(NodeType start) {
+            return trees.get(start, version);
+        }
+
+        // starts a tree from start, and caches it
+        TreeSearch begin(NodeType start) {
+            TreeSearch search = new TreeSearch(compact, compact.indexOf(start));
+            trees.put(start, search, version);
+            return search;
+        }
+    }
+
+    /**
+     * The shortest path tree from one start node, which is grown by a paused
+     * search that is resumed whenever a path to a node that it has not settled
+     * yet is needed. The paused search has an engine of its own rather than
+     * one from the compact graph's pool, since it may stay paused for as long
+     * as it is cached, and the pool is meant for searches that finish right
+     * away. Once the search has settled every node that it can reach, or the
+     * cache evicts (or never admits) it, the engine is dropped, and only the
+     * finished CompactPathTree is kept. A caller that still holds a search
+     * that was discarded while paused answers with a search of its own.
+     */
+    private class TreeSearch {
+        private final CompactGraph<NodeType> compact;
+        private final int start;
+        // the paused search, or null once the tree is complete
+        private DijkstraEngine engine;
+        private CompactPathTree<NodeType> tree;
+
+        TreeSearch(CompactGraph<NodeType> compact, int start) {
+            this.compact = compact;
+            this.start = start;
+            this.engine = new DijkstraEngine(compact);
+            // settles nothing but start, so the search is ready to resume
+            engine.search(start, start);
+        }
+
+        // the shortest path to end, which may resume the paused search
+        synchronized PathResult<NodeType> pathResult(NodeType end) {
+            if (tree == null && engine == null) {
+                return compact.shortestPathResult(compact.nodeAt(start), end);
+            }
+            if (tree == null) {
+                int to = compact.indexOf(end);
+                if (engine.resume(to)) {
+                    PathResult<NodeType> result = compact.pathResult(engine.path(to),
+                            engine.distance(to));
+                    if (engine.isFinished()) {
+                        finish();
+                    }
+                    return result;
+                }
+                finish();
+            }
+            return tree.getPathResult(end);
+        }
+
+        // the complete tree, which finishes the paused search first
+        synchronized CompactPathTree<NodeType> tree() {
+            if (tree == null && engine == null) {
+                return compact.shortestPathTree(compact.nodeAt(start));
+            }
+            if (tree == null) {
+                engine.resume(-1);
+                finish();
+            }
+            return tree;
+        }
+
+        // lets go of the paused search, once the cache no longer holds it
+        synchronized void discard() {
+            engine = null;
+        }
+
+        private void finish() {
+            tree = new CompactPathTree<>(compact, start, engine.copyDistances(),
+                    engine.copyPredecessors());
+            engine = null;
+        }
+    }
+
+    // the tree cache for the current version of this graph, or null when off
+    private TreeCache currentTreeCache() {
+        long bytes = treeCacheBytes;
+        // a budget too small for a single tree turns caching off as well
+        if (treeCacheCapacity(bytes, getNodeCount()) == 0) {
+            return null;
+        }
+        TreeCache cache = treeCache;
+        if (cache == null || cache.version != modificationCount || cache.bytes != bytes) {
+            synchronized (this) {
+                cache = treeCache;
+                if (cache == null || cache.version != modificationCount || cache.bytes != bytes) {
+                    cache = new TreeCache(modificationCount, bytes);
+                    treeCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    // the number of trees that fit into bytes, of which there is at most one
+    // per node however much memory is allowed
+    private static int treeCacheCapacity(long bytes, int nodeCount) {
+        long treeBytes = (long) TREE_BYTES_PER_NODE * Math.max(1, nodeCount);
+        return (int) Math.min(nodeCount, bytes / treeBytes);
+    }
+
+    // a compact copy of the current version of this graph, shared with the
+    // tree cache or the distance matrix when they have one
+    private CompactGraph<NodeType> currentCompactGraph() {
+        TreeCache cache = currentTreeCache();
+        if (cache != null) {
+            return cache.compact;
+        }
+        DistanceMatrix<NodeType> matrix = distanceMatrix;
+        if (matrix != null && matrix.getGraph() == this && !matrix.isStale()) {
+            return matrix.getCompactGraph();
+        }
+        synchronized (this) {
+            if (compactCopy == null || compactCopyVersion != modificationCount) {
+                compactCopy = CompactGraph.freeze(this);
+                compactCopyVersion = modificationCount;
+            }
+            return compactCopy;
+        }
     }
 
     /**
@@ -86,9 +427,32 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         if (!containsNode(start) || !containsNode(end)) {
             throw new NoSuchElementException("Start or end node not found in graph");
         }
+        DistanceMatrix<NodeType> matrix = this.distanceMatrix;
+        if (matrix != null && !matrix.isStale()) {
+            return searchNodes(matrix.shortestPathResult(start, end));
+        }
+        TreeCache cache = currentTreeCache();
+        TreeSearch tree = cache == null ? null : cache.cached(start);
+        if (tree != null) {
+            return searchNodes(tree.pathResult(end));
+        }
+        ContractionHierarchy<NodeType> hierarchy = this.hierarchy;
+        if (hierarchy != null && !hierarchy.isStale()) {
+            return searchNodes(hierarchy.shortestPathResult(start, end));
+        }
+        Heuristic<NodeType> heuristic = this.heuristic;
+        if (cache != null && heuristic == null && !bidirectional) {
+            return searchNodes(cache.begin(start).pathResult(end));
+        }
+        if (heuristic != null) {
+            return computeAStarShortestPath(start, end, heuristic);
+        }
+        if (bidirectional) {
+            return computeBidirectionalShortestPath(start, end);
+        }
 
         PriorityQueue<SearchNode> pq = new PriorityQueue<>();
-        HashtableMap<NodeType, Double> visited = new HashtableMap<>();
+        MapADT<NodeType, Double> visited = new ProbingHashtableMap<>();
 
         // Get the start node from the graph
         Node startNode = nodes.get(start);
@@ -106,9 +470,9 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
                 return current;
             }
 
-            // Skip if we've found a better path to this node already
-            if (visited.containsKey(currentData) &&
-                    visited.get(currentData) < current.cost) {
+            // Skip if we've already settled this node along a path that is
+            // no more expensive (the first time a node is polled is cheapest)
+            if (visited.containsKey(currentData)) {
                 continue;
             }
             visited.put(currentData, current.cost);
@@ -121,10 +485,11 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
                 }
 
                 // Calculate new cost to reach successor
-                double newCost = current.cost + edge.data.doubleValue();
+                double edgeCost = edge.data.doubleValue();
+                double newCost = current.cost + edgeCost;
 
                 // create successor and add to queue
-                SearchNode successor = new SearchNode(edge.successor, newCost, current);
+                SearchNode successor = new SearchNode(edge.successor, newCost, current, edgeCost);
                 pq.add(successor);
             }
         }
@@ -133,22 +498,330 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
                 "No path found between " + start.toString() + " and " + end.toString());
     }
 
+    /**
+     * This helper method computes the same shortest path as
+     * computeShortestPath() with the A* algorithm, which orders the queue by
+     * the cost of each SearchNode plus the heuristic's estimate of the cost
+     * that remains from its node to end. The first SearchNode for end that
+     * leaves the queue is the end of a shortest path, as long as the
+     * heuristic never overestimates. A node can leave the queue more than
+     * once, when a heuristic that is admissible but not consistent finds a
+     * cheaper path to it after it was expanded, so such heuristics also find
+     * shortest paths. Nodes with an infinite estimate cannot reach end, so
+     * they are never queued.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @param heuristic estimates the remaining cost from any node to end
+     * @return SearchNode for the final end node within the shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    protected SearchNode computeAStarShortestPath(NodeType start, NodeType end,
+            Heuristic<NodeType> heuristic) {
+        if (!containsNode(start) || !containsNode(end)) {
+            throw new NoSuchElementException("Start or end node not found in graph");
+        }
+
+        PriorityQueue<SearchNode> pq = new PriorityQueue<>(
+                Comparator.comparingDouble((SearchNode node) -> node.cost + node.estimate));
+        // the cheapest cost found so far for each node that has been reached
+        MapADT<NodeType, Double> best = new ProbingHashtableMap<>();
+
+        SearchNode first = new SearchNode(nodes.get(start), 0, null);
+        first.estimate = heuristic.estimate(start, end);
+        // the heuristic knows already that end cannot be reached
+        if (first.estimate == Double.POSITIVE_INFINITY) {
+            throw new NoSuchElementException(
+                    "No path found between " + start.toString() + " and " + end.toString());
+        }
+        best.put(start, 0.0);
+        pq.add(first);
+
+        while (!pq.isEmpty()) {
+            SearchNode current = pq.poll();
+            NodeType currentData = current.node.data;
+            if (currentData.equals(end)) {
+                return current;
+            }
+            // skip entries that were replaced by a cheaper path to their node
+            if (current.cost > best.get(currentData)) {
+                continue;
+            }
+
+            for (Edge edge : current.node.edgesLeaving) {
+                NodeType nextData = edge.successor.data;
+                double edgeCost = edge.data.doubleValue();
+                double newCost = current.cost + edgeCost;
+                double estimate = heuristic.estimate(nextData, end);
+                // no path to end leads through a node that cannot reach it
+                if (estimate == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                assert current.estimate <= edgeCost + estimate + CONSISTENCY_TOLERANCE
+                        : "Heuristic is not consistent on the edge from " + currentData
+                        + " to " + nextData + ": the estimate drops from " + current.estimate
+                        + " to " + estimate + " across an edge of weight " + edgeCost;
+                if (best.containsKey(nextData)) {
+                    if (best.get(nextData) <= newCost) {
+                        continue;
+                    }
+                    best.remove(nextData);
+                }
+                best.put(nextData, newCost);
+                SearchNode successor = new SearchNode(edge.successor, newCost, current, edgeCost);
+                successor.estimate = estimate;
+                pq.add(successor);
+            }
+        }
+        throw new NoSuchElementException(
+                "No path found between " + start.toString() + " and " + end.toString());
+    }
 
     /**
-     * Returns the list of data values from nodes along the shortest path
-     * from the node with the provided start value through the node with the
-     * provided end value. This list of data values starts with the start
-     * value, ends with the end value, and contains intermediary values in the
-     * order they are encountered while traversing this shorteset path. This
-     * method uses Dijkstra's shortest path algorithm to find this solution.
+     * One direction of a bidirectional search. A forward frontier follows the
+     * edges leaving each node away from the start node, and its SearchNodes
+     * store the cost from the start node. A backward frontier follows the
+     * edges entering each node away from the end node, and its SearchNodes
+     * store the cost to reach the end node, with a predecessor field that
+     * references the next SearchNode along the path towards the end node.
+     */
+    protected class Frontier {
+        public final boolean forward;
+        public final PriorityQueue<SearchNode> queue = new PriorityQueue<>();
+        // the cheapest SearchNode found so far for each node
+        public final MapADT<NodeType, SearchNode> labels = new ProbingHashtableMap<>();
+        public final MapADT<NodeType, SearchNode> settled = new ProbingHashtableMap<>();
+
+        public Frontier(Node origin, boolean forward) {
+            this.forward = forward;
+            SearchNode first = new SearchNode(origin, 0, null);
+            labels.put(origin.data, first);
+            queue.add(first);
+        }
+
+        // drops queue entries for nodes that were settled along a cheaper path
+        private void skipSettled() {
+            while (!queue.isEmpty() && settled.containsKey(queue.peek().node.data)) {
+                queue.poll();
+            }
+        }
+
+        public boolean isEmpty() {
+            skipSettled();
+            return queue.isEmpty();
+        }
+
+        // the cost of the next node that this frontier would settle
+        public double minCost() {
+            skipSettled();
+            return queue.peek().cost;
+        }
+
+        /**
+         * Settles the next node and labels its unsettled neighbors. Any
+         * neighbor that was already labelled by the other frontier completes
+         * a path through that neighbor. Returns the neighbor that completes
+         * the cheapest of those paths when it costs less than bestCost, or
+         * null otherwise.
+         */
+        public NodeType settleNext(Frontier other, double bestCost) {
+            NodeType meeting = null;
+            SearchNode current = queue.poll();
+            settled.put(current.node.data, current);
+            for (Edge edge : forward ? current.node.edgesLeaving : current.node.edgesEntering) {
+                Node next = forward ? edge.successor : edge.predecessor;
+                if (settled.containsKey(next.data)) {
+                    continue;
+                }
+                double edgeCost = edge.data.doubleValue();
+                double newCost = current.cost + edgeCost;
+                if (labels.containsKey(next.data)) {
+                    if (labels.get(next.data).cost <= newCost) {
+                        continue;
+                    }
+                    labels.remove(next.data);
+                }
+                SearchNode label = new SearchNode(next, newCost, current, edgeCost);
+                labels.put(next.data, label);
+                queue.add(label);
+
+                if (other.labels.containsKey(next.data)) {
+                    SearchNode otherLabel = other.labels.get(next.data);
+                    if (newCost + otherLabel.cost < bestCost) {
+                        bestCost = newCost + otherLabel.cost;
+                        meeting = next.data;
+                    }
+                }
+            }
+            return meeting;
+        }
+    }
+
+    /**
+     * This helper method computes the same shortest path as
+     * computeShortestPath(), by running one search forward from the start
+     * node and a second search backward from the end node, always advancing
+     * the one whose next node is closer. Every edge between a node labelled
+     * by one search and a node labelled by the other completes a path from
+     * start to end, and the search stops once the costs of the next nodes of
+     * both searches add up to at least the cheapest such path.
      *
      * @param start the data item in the starting node for the path
      * @param end   the data item in the destination node for the path
-     * @return list of data item from node along this shortest path
+     * @return SearchNode for the final end node within the shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
      */
-    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
-        // Find the shortest path
-        SearchNode endNode = computeShortestPath(start, end);
+    protected SearchNode computeBidirectionalShortestPath(NodeType start, NodeType end) {
+        if (!containsNode(start) || !containsNode(end)) {
+            throw new NoSuchElementException("Start or end node not found in graph");
+        }
+        if (start.equals(end)) {
+            return new SearchNode(nodes.get(start), 0, null);
+        }
+
+        Frontier forward = new Frontier(nodes.get(start), true);
+        Frontier backward = new Frontier(nodes.get(end), false);
+        double bestCost = Double.POSITIVE_INFINITY;
+        // the labels of both searches at the node where the best paths meet
+        SearchNode meetingForward = null;
+        SearchNode meetingBackward = null;
+
+        while (!forward.isEmpty() && !backward.isEmpty()
+                && forward.minCost() + backward.minCost() < bestCost) {
+            Frontier side = forward.minCost() <= backward.minCost() ? forward : backward;
+            NodeType meeting = side.settleNext(side == forward ? backward : forward, bestCost);
+            if (meeting != null) {
+                meetingForward = forward.labels.get(meeting);
+                meetingBackward = backward.labels.get(meeting);
+                bestCost = meetingForward.cost + meetingBackward.cost;
+            }
+        }
+        if (meetingForward == null) {
+            throw new NoSuchElementException(
+                    "No path found between " + start.toString() + " and " + end.toString());
+        }
+
+        // continue the forward path to the meeting node along the backward
+        // path, adding up costs from the start just like computeShortestPath
+        SearchNode current = meetingForward;
+        for (SearchNode next = meetingBackward; next.predecessor != null; next = next.predecessor) {
+            current = new SearchNode(next.predecessor.node, current.cost + next.edgeCost,
+                    current, next.edgeCost);
+        }
+        return current;
+    }
+
+    /**
+     * This helper method runs Dijkstra's algorithm from the provided start
+     * location without stopping at any particular end node, so that every
+     * node that can be reached from start is settled. The SearchNode stored
+     * for each settled node represents the end of the shortest path to that
+     * node, just like the SearchNode returned by computeShortestPath().
+     *
+     * @param start the data item in the starting node for the paths
+     * @return a map from the data in each node that can be reached from start
+     *         to the SearchNode at the end of its shortest path
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     */
+    protected MapADT<NodeType, SearchNode> computeShortestPathTree(NodeType start) {
+        if (!containsNode(start)) {
+            throw new NoSuchElementException("Start node not found in graph");
+        }
+
+        PriorityQueue<SearchNode> pq = new PriorityQueue<>();
+        MapADT<NodeType, SearchNode> settled = new ProbingHashtableMap<>();
+        pq.add(new SearchNode(nodes.get(start), 0, null));
+
+        // Loop until every reachable node has been settled
+        while (!pq.isEmpty()) {
+            SearchNode current = pq.poll();
+            if (settled.containsKey(current.node.data)) {
+                continue;
+            }
+            settled.put(current.node.data, current);
+
+            for (Edge edge : current.node.edgesLeaving) {
+                if (!settled.containsKey(edge.successor.data)) {
+                    double edgeCost = edge.data.doubleValue();
+                    pq.add(new SearchNode(edge.successor, current.cost + edgeCost, current,
+                            edgeCost));
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * A ShortestPathTree that looks destinations up among the SearchNodes
+     * settled by computeShortestPathTree().
+     */
+    protected class SearchNodeTree implements ShortestPathTree<NodeType> {
+        private final NodeType start;
+        private final MapADT<NodeType, SearchNode> settled;
+
+        public SearchNodeTree(NodeType start, MapADT<NodeType, SearchNode> settled) {
+            this.start = start;
+            this.settled = settled;
+        }
+
+        public NodeType getStart() {
+            return start;
+        }
+
+        public boolean isReachable(NodeType end) {
+            return settled.containsKey(end);
+        }
+
+        public double getCost(NodeType end) {
+            return settledNode(end).cost;
+        }
+
+        public List<NodeType> getPath(NodeType end) {
+            return pathData(settledNode(end));
+        }
+
+        private SearchNode settledNode(NodeType end) {
+            if (!settled.containsKey(end)) {
+                throw new NoSuchElementException(
+                        "No path found between " + start + " and " + end);
+            }
+            return settled.get(end);
+        }
+    }
+
+    // links SearchNodes along a path that was found without creating them
+    private SearchNode searchNodes(PathResult<NodeType> result) {
+        List<NodeType> path = result.getNodes();
+        List<Double> segments = result.getSegmentCosts();
+        SearchNode current = new SearchNode(nodes.get(path.get(0)), 0, null);
+        for (int i = 1; i < path.size(); i++) {
+            double edgeCost = segments.get(i - 1);
+            current = new SearchNode(nodes.get(path.get(i)), current.cost + edgeCost,
+                    current, edgeCost);
+        }
+        return current;
+    }
+
+    // describes the whole path that ends with the provided node
+    private PathResult<NodeType> pathResult(SearchNode endNode) {
+        LinkedList<NodeType> path = new LinkedList<>();
+        LinkedList<Double> segments = new LinkedList<>();
+        for (SearchNode current = endNode; current != null; current = current.predecessor) {
+            path.addFirst(current.node.data);
+            if (current.predecessor != null) {
+                segments.addFirst(current.edgeCost);
+            }
+        }
+        return new PathResult<>(path, segments, endNode.cost);
+    }
+
+    // lists the node data along the path that ends with the provided node
+    private List<NodeType> pathData(SearchNode endNode) {
         LinkedList<NodeType> path = new LinkedList<>();
 
         // Work backwards from end node adding each node's data to front of list
@@ -161,6 +834,23 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         return path;
     }
 
+    /**
+     * Returns the list of data values from nodes along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value. This list of data values starts with the start
+     * value, ends with the end value, and contains intermediary values in the
+     * order they are encountered while traversing this shorteset path. This
+     * method uses Dijkstra's shortest path algorithm to find this solution.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        // Find the shortest path
+        return pathData(computeShortestPath(start, end));
+    }
+
     /**
      * Returns the cost of the path (sum over edge weights) of the shortest
      * path freom the node containing the start data to the node containing the
@@ -172,10 +862,69 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * @return the cost of the shortest path between these nodes
      */
     public double shortestPathCost(NodeType start, NodeType end) {
+        DistanceMatrix<NodeType> matrix = this.distanceMatrix;
+        if (matrix != null && !matrix.isStale()) {
+            return matrix.getCost(start, end);
+        }
         return computeShortestPath(start, end).cost;
 
     }
 
+    /**
+     * Returns the nodes, edge weights and total cost along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value, all found by a single run of Dijkstra's shortest
+     * path algorithm.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the nodes, edge weights and cost of this shortest path
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        return pathResult(computeShortestPath(start, end));
+    }
+
+    /**
+     * Returns the k shortest paths from the node with the provided start
+     * value to the node with the provided end value that do not visit any
+     * node twice, such as to offer alternatives to the shortest path. They
+     * are found with Yen's algorithm (see KShortestPaths) on a compact copy
+     * of this graph, which is kept until this graph is modified.
+     *
+     * @param start the data item in the starting node for the paths
+     * @param end   the data item in the destination node for the paths
+     * @param k     the most paths to find
+     * @return the nodes, edge weights and cost of up to k paths, cheapest
+     *         first, or no paths when there is no path from start to end
+     * @throws NoSuchElementException if either node cannot be found
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public List<PathResult<NodeType>> kShortestPaths(NodeType start, NodeType end, int k) {
+        return new KShortestPaths<>(currentCompactGraph()).find(start, end, k);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to every node that can be reached from it, found by a single run of
+     * Dijkstra's shortest path algorithm, or taken from the tree cache when
+     * trees are cached (see setTreeCacheBytes()).
+     *
+     * @param start the data item in the starting node for the paths
+     * @return the tree of shortest paths from start to every reachable node
+     * @throws NoSuchElementException if the start node cannot be found
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        TreeCache cache = currentTreeCache();
+        if (cache != null) {
+            if (!containsNode(start)) {
+                throw new NoSuchElementException("Start node not found in graph");
+            }
+            TreeSearch tree = cache.cached(start);
+            return (tree != null ? tree : cache.begin(start)).tree();
+        }
+        return new SearchNodeTree(start, computeShortestPathTree(start));
+    }
+
     private DijkstraGraph<String, Integer> graph;
 
     @BeforeEach
@@ -274,5 +1023,252 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         assertEquals(9.0, graph.shortestPathCost("A", "D"));
     }
 
+    /**
+     * Checks that bidirectional searches find the same paths as forward ones
+     */
+    @Test
+    public void testBidirectionalMatchesForward() {
+        for (String start : graph.getAllNodes()) {
+            for (String end : graph.getAllNodes()) {
+                graph.setBidirectional(false);
+                List<String> expected;
+                try {
+                    expected = graph.shortestPathData(start, end);
+                } catch (NoSuchElementException e) {
+                    graph.setBidirectional(true);
+                    assertThrows(NoSuchElementException.class,
+                            () -> graph.shortestPathData(start, end));
+                    continue;
+                }
+                double expectedCost = graph.shortestPathCost(start, end);
+                graph.setBidirectional(true);
+                assertEquals(expected, graph.shortestPathData(start, end));
+                assertEquals(expectedCost, graph.shortestPathCost(start, end));
+            }
+        }
+    }
+
+    /**
+     * Checks that a single shortest path tree agrees with the point to point
+     * searches for every destination.
+     */
+    @Test
+    public void testShortestPathTree() {
+        ShortestPathTree<String> tree = graph.shortestPathTree("D");
+        assertEquals("D", tree.getStart());
+        // every node in this graph can be reached from D
+        for (String end : graph.getAllNodes()) {
+            assertTrue(tree.isReachable(end));
+            assertEquals(graph.shortestPathCost("D", end), tree.getCost(end));
+        }
+        assertEquals(List.of("D", "G", "H", "I"), tree.getPath("I"));
+        assertEquals(List.of(2.0, 9.0, 2.0),
+                graph.shortestPathResult("D", "I").getSegmentCosts());
+        assertEquals(List.of(0.0, 2.0, 11.0, 13.0),
+                graph.shortestPathResult("D", "I").getCumulativeCosts());
+        assertFalse(tree.isReachable("Z"));
+
+        ShortestPathTree<String> fromE = graph.shortestPathTree("E");
+        assertFalse(fromE.isReachable("G"));
+        assertThrows(NoSuchElementException.class, () -> fromE.getCost("G"));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathTree("Z"));
+    }
+
+    /**
+     * Checks that cached trees answer searches from the same start node, and
+     * that they are discarded once the graph is modified
+     */
+    @Test
+    public void testTreeCache() {
+        graph.setTreeCacheBytes(DEFAULT_TREE_CACHE_BYTES);
+        assertEquals(List.of("D", "G", "H", "I"), graph.shortestPathData("D", "I"));
+        ResultCache<String, ?> trees = graph.getTreeCache();
+        assertEquals(1, trees.getSize());
+        assertEquals(List.of("D", "G", "L"), graph.shortestPathData("D", "L"));
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        assertSame(graph.shortestPathTree("D"), graph.shortestPathTree("D"));
+        assertEquals(4, trees.getHitCount());
+        assertEquals(1, trees.getMissCount());
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("E", "G"));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathTree("Z"));
+
+        graph.insertEdge("D", "I", 3);
+        assertNotSame(trees, graph.getTreeCache());
+        assertEquals(List.of("D", "I"), graph.shortestPathData("D", "I"));
+        assertEquals(3.0, graph.shortestPathCost("D", "I"));
+
+        // a tree does not fit into 8 bytes, so there is no cache at all
+        graph.setTreeCacheBytes(8);
+        assertEquals(List.of("D", "I"), graph.shortestPathData("D", "I"));
+        assertNull(graph.getTreeCache());
+        graph.setTreeCacheBytes(0);
+        assertNull(graph.getTreeCache());
+
+        // resumed trees agree with complete searches for every pair of nodes
+        graph.setTreeCacheBytes(DEFAULT_TREE_CACHE_BYTES);
+        CompactGraph<String> compact = CompactGraph.freeze(graph);
+        for (String start : graph.getAllNodes()) {
+            for (String end : graph.getAllNodes()) {
+                CompactPathTree<String> tree = compact.shortestPathTree(start);
+                if (tree.isReachable(end)) {
+                    assertEquals(tree.getCost(end), graph.shortestPathCost(start, end));
+                } else {
+                    assertThrows(NoSuchElementException.class,
+                            () -> graph.shortestPathCost(start, end));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that A* and bidirectional searches do not start cached trees,
+     * but still answer from the trees that are cached already
+     */
+    @Test
+    public void testTreeCacheLeavesOtherSearches() {
+        graph.setTreeCacheBytes(DEFAULT_TREE_CACHE_BYTES);
+        graph.setHeuristic((from, to) -> 0.0);
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        assertEquals(0, graph.getTreeCache().getSize());
+        graph.setHeuristic(null);
+        graph.setBidirectional(true);
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        assertEquals(0, graph.getTreeCache().getSize());
+
+        graph.shortestPathTree("D");
+        assertEquals(1, graph.getTreeCache().getSize());
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        graph.setBidirectional(false);
+    }
+
+    /**
+     * Checks that paused searches, whether the tree cache keeps or evicts
+     * them, never take engines from the compact graph's pool, and that a
+     * budget too small for a single tree never starts a paused search at all
+     */
+    @Test
+    public void testTreeCacheLeavesEnginePool() {
+        // room for exactly one tree, so every new start evicts the last one,
+        // and then room for all of them
+        for (long trees : new long[] {1, graph.getNodeCount()}) {
+            graph.setTreeCacheBytes(trees * TREE_BYTES_PER_NODE * graph.getNodeCount());
+            CompactGraph<String> compact = graph.currentTreeCache().compact;
+            // a search that finishes right away leaves an idle engine behind
+            compact.shortestPathCost("D", "I");
+            int idle = compact.getIdleEngineCount();
+            assertTrue(idle >= 1);
+            for (String start : graph.getAllNodes()) {
+                try {
+                    graph.shortestPathCost(start, "L");
+                } catch (NoSuchElementException e) {
+                    // the paused search from start is cached all the same
+                }
+            }
+            assertEquals(trees, graph.getTreeCache().getSize());
+            assertEquals(idle, compact.getIdleEngineCount());
+        }
+
+        graph.setTreeCacheBytes(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        }
+        assertNull(graph.getTreeCache());
+    }
+
+    /**
+     * Checks that A* searches find the same shortest paths as Dijkstra's
+     * algorithm, with a consistent heuristic (half of the true remaining
+     * cost) and with one that is admissible but not consistent
+     */
+    @Test
+    public void testAStarMatchesDijkstra() {
+        MapADT<String, Double> toI = new ProbingHashtableMap<>();
+        for (String node : graph.getAllNodes()) {
+            try {
+                toI.put(node, graph.shortestPathCost(node, "I"));
+            } catch (NoSuchElementException e) {
+                toI.put(node, 0.0);
+            }
+        }
+        graph.setHeuristic((from, to) -> to.equals("I") ? toI.get(from) / 2 : 0.0);
+        assertEquals(List.of("D", "G", "H", "I"), graph.shortestPathData("D", "I"));
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        assertEquals(List.of("B", "M", "I", "H", "L"), graph.shortestPathData("B", "L"));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("E", "I"));
+
+        // the exact cost to I, except for M where 0 is still a lower bound,
+        // which is rejected by the consistency check when assertions are on
+        graph.setHeuristic((from, to) -> from.equals("M") ? 0.0 : toI.get(from));
+        if (DijkstraGraph.class.desiredAssertionStatus()) {
+            assertThrows(AssertionError.class, () -> graph.shortestPathData("A", "I"));
+        } else {
+            assertEquals(List.of("A", "B", "M", "I"), graph.shortestPathData("A", "I"));
+            assertEquals(8.0, graph.shortestPathCost("A", "I"));
+        }
+        graph.setHeuristic(null);
+    }
+
+    /**
+     * Checks that A* gives up right away when the heuristic rules out every
+     * path, and never expands nodes that the heuristic rules out
+     */
+    @Test
+    public void testAStarSkipsInfiniteEstimates() {
+        // neither X nor Y can reach I
+        graph.insertNode("X");
+        graph.insertNode("Y");
+        graph.insertEdge("X", "Y", 1);
+        graph.insertEdge("Y", "E", 1);
+        MapADT<String, Double> toI = new ProbingHashtableMap<>();
+        for (String node : graph.getAllNodes()) {
+            try {
+                toI.put(node, graph.shortestPathCost(node, "I"));
+            } catch (NoSuchElementException e) {
+                // 0 is a lower bound too, but does not rule out X
+                toI.put(node, node.equals("X") ? 0.0 : Double.POSITIVE_INFINITY);
+            }
+        }
+        List<String> estimated = new LinkedList<>();
+        graph.setHeuristic((from, to) -> {
+            estimated.add(from);
+            return toI.get(from);
+        });
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("Y", "I"));
+        assertEquals(List.of("Y"), estimated);
+        estimated.clear();
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("X", "I"));
+        assertEquals(List.of("X", "Y"), estimated);
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        graph.setHeuristic(null);
+    }
+
+    /**
+     * Checks that coordinate estimates are scaled by the cheapest cost per
+     * unit of distance of any edge, so they never exceed a real path's cost
+     */
+    @Test
+    public void testCoordinateHeuristic() {
+        DijkstraGraph<String, Double> line = new DijkstraGraph<>();
+        MapADT<String, double[]> coordinates = new ProbingHashtableMap<>();
+        String[] names = {"P", "Q", "R"};
+        for (int i = 0; i < names.length; i++) {
+            line.insertNode(names[i]);
+            coordinates.put(names[i], new double[] {3.0 * i, 4.0 * i});
+        }
+        line.insertEdge("P", "Q", 10.0); // 2 per unit of distance
+        line.insertEdge("Q", "R", 20.0); // 4 per unit of distance
+        line.insertEdge("P", "R", 25.0);
+
+        CoordinateHeuristic<String> heuristic = new CoordinateHeuristic<>(line, coordinates);
+        assertEquals(2.0, heuristic.getCostPerDistance());
+        assertEquals(20.0, heuristic.estimate("P", "R"));
+        line.setHeuristic(heuristic);
+        assertEquals(List.of("P", "R"), line.shortestPathData("P", "R"));
+
+        // a node without coordinates turns the heuristic off
+        line.insertNode("S");
+        assertEquals(0.0, new CoordinateHeuristic<>(line, coordinates).estimate("P", "R"));
+    }
+
 }
 
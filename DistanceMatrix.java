@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A DistanceMatrix holds the shortest path between every pair of nodes of a
+ * small graph, so that point to point queries need no search at all. It is
+ * built with one single source Dijkstra search from every node, on a compact
+ * copy of the graph, and the searches of different start nodes run in
+ * parallel on a fork-join pool. The costs are stored in one flat n by n
+ * array, so the cost of a shortest path is a single array access. The paths
+ * are stored as an n by n array of predecessors: row s holds the predecessor
+ * of every node in the shortest path tree of start node s, so a path is
+ * found by walking back from its end node, in time proportional to its
+ * length, and it is the same path that a search from s would find.
+ *
+ * The matrix takes 12 * n * n bytes, which is why it is only meant for graphs
+ * with at most a few thousand nodes (see DEFAULT_MAX_NODES). Like a
+ * ContractionHierarchy, it describes its graph as it was when it was built,
+ * and isStale() returns true once that graph is modified.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class DistanceMatrix<NodeType> {
+
+    /**
+     * The largest graph that a matrix is built for by default (12 MB).
+     */
+    public static final int DEFAULT_MAX_NODES = 1024;
+
+    // the most start nodes that one fork-join task searches from
+    private static final int ROWS_PER_TASK = 16;
+
+    private final BaseGraph<NodeType, ?> graph;
+    private final long modificationCount;
+    private final CompactGraph<NodeType> compact;
+    private final int n;
+    // dist[s * n + t] is the cost of the shortest path from s to t (or
+    // infinity), and pred[s * n + t] the node before t on that path (or -1)
+    private final double[] dist;
+    private final int[] pred;
+
+    /**
+     * Builds the matrix for the current nodes and edges of a graph, searching
+     * on one thread per processor.
+     *
+     * @param graph the graph to find all shortest paths in
+     * @return the matrix of the shortest paths between all nodes
+     * @throws IllegalArgumentException if the graph has too many nodes for
+     *         its matrix to fit into an array
+     */
+    public static <NodeType, EdgeType extends Number> DistanceMatrix<NodeType> build(
+            BaseGraph<NodeType, EdgeType> graph) {
+        return build(graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds the matrix for the current nodes and edges of a graph.
+     *
+     * @param graph the graph to find all shortest paths in
+     * @param parallelism the number of threads to search on
+     * @return the matrix of the shortest paths between all nodes
+     * @throws IllegalArgumentException if the graph has too many nodes for
+     *         its matrix to fit into an array
+     */
+    public static <NodeType, EdgeType extends Number> DistanceMatrix<NodeType> build(
+            BaseGraph<NodeType, EdgeType> graph, int parallelism) {
+        long cells = (long) graph.getNodeCount() * graph.getNodeCount();
+        if (cells > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("A graph with " + graph.getNodeCount()
+                    + " nodes is too large for a distance matrix");
+        return new DistanceMatrix<>(graph, graph.getModificationCount(),
+                CompactGraph.freeze(graph), parallelism);
+    }
+
+    private DistanceMatrix(BaseGraph<NodeType, ?> graph, long modificationCount,
+            CompactGraph<NodeType> compact, int parallelism) {
+        this.graph = graph;
+        this.modificationCount = modificationCount;
+        this.compact = compact;
+        this.n = compact.getNodeCount();
+        this.dist = new double[n * n];
+        this.pred = new int[n * n];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new Rows(0, n));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // fills the rows of a range of start nodes, splitting larger ranges
+    private class Rows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        Rows(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Rows(from, middle), new Rows(middle, to));
+                return;
+            }
+            DijkstraEngine engine = compact.acquireEngine();
+            try {
+                for (int s = from; s < to; s++) {
+                    engine.search(s, -1);
+                    for (int t = 0; t < n; t++) {
+                        dist[s * n + t] = engine.distance(t);
+                        pred[s * n + t] = engine.predecessor(t);
+                    }
+                }
+            } finally {
+                compact.releaseEngine(engine);
+            }
+        }
+    }
+
+    /**
+     * @return the graph that this matrix was built from
+     */
+    public BaseGraph<NodeType, ?> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true if the graph was modified after this matrix was built
+     */
+    public boolean isStale() {
+        return graph.getModificationCount() != modificationCount;
+    }
+
+    /**
+     * @return the number of nodes (rows and columns) of this matrix
+     */
+    public int getNodeCount() {
+        return n;
+    }
+
+    /**
+     * @return the compact copy of the graph, whose node ids index this matrix
+     */
+    public CompactGraph<NodeType> getCompactGraph() {
+        return compact;
+    }
+
+    /**
+     * @param start the id of the start node
+     * @param end the id of the end node
+     * @return the cost of the shortest path between them, or infinity
+     */
+    public double getCostById(int start, int end) {
+        return dist[start * n + end];
+    }
+
+    /**
+     * Returns the cost of the shortest path between two nodes.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException if either node cannot be found, or if
+     *         there is no path from start to end
+     */
+    public double getCost(NodeType start, NodeType end) {
+        return dist[reachableCell(start, end)];
+    }
+
+    /**
+     * Returns the data of the nodes along the shortest path between two
+     * nodes.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the node data along the shortest path, from start to end
+     * @throws NoSuchElementException if either node cannot be found, or if
+     *         there is no path from start to end
+     */
+    public List<NodeType> getPath(NodeType start, NodeType end) {
+        reachableCell(start, end);
+        int[] ids = pathIds(compact.indexOf(start), compact.indexOf(end));
+        List<NodeType> path = new ArrayList<>(ids.length);
+        for (int v : ids)
+            path.add(compact.nodeAt(v));
+        return path;
+    }
+
+    /**
+     * Returns the nodes, edge weights and total cost along the shortest path
+     * between two nodes.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the nodes, edge weights and cost of this shortest path
+     * @throws NoSuchElementException if either node cannot be found, or if
+     *         there is no path from start to end
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        int cell = reachableCell(start, end);
+        return compact.pathResult(pathIds(compact.indexOf(start), compact.indexOf(end)),
+                dist[cell]);
+    }
+
+    // the ids along the path from start to end in start's row
+    private int[] pathIds(int start, int end) {
+        int row = start * n;
+        int length = 1;
+        for (int v = end; v != start; v = pred[row + v])
+            length++;
+        int[] path = new int[length];
+        for (int v = end; length > 0; v = pred[row + v])
+            path[--length] = v;
+        return path;
+    }
+
+    // the index of (start, end) in the matrix, or throws when there is no path
+    private int reachableCell(NodeType start, NodeType end) {
+        int cell = compact.indexOf(start) * n + compact.indexOf(end);
+        if (dist[cell] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("No path found between " + start + " and " + end);
+        return cell;
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a DistanceMatrix holds the same shortest paths as single source
+ * searches, and that a DijkstraGraph stops using a matrix once it is
+ * modified.
+ */
+public class DistanceMatrixTests {
+
+    private DijkstraGraph<String, Double> graph;
+
+    @BeforeEach
+    public void createGraph() {
+        // the same graph that is traced through in DijkstraGraph's tests
+        graph = new DijkstraGraph<>();
+        for (String node : new String[] {"A", "B", "D", "E", "F", "G", "H", "I", "L", "M"})
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 1.0);
+        graph.insertEdge("A", "M", 5.0);
+        graph.insertEdge("A", "H", 7.0);
+        graph.insertEdge("B", "M", 3.0);
+        graph.insertEdge("I", "D", 1.0);
+        graph.insertEdge("I", "H", 2.0);
+        graph.insertEdge("D", "A", 7.0);
+        graph.insertEdge("D", "F", 4.0);
+        graph.insertEdge("D", "G", 2.0);
+        graph.insertEdge("M", "E", 3.0);
+        graph.insertEdge("M", "I", 4.0);
+        graph.insertEdge("F", "G", 9.0);
+        graph.insertEdge("G", "H", 9.0);
+        graph.insertEdge("G", "L", 7.0);
+        graph.insertEdge("G", "A", 4.0);
+        graph.insertEdge("H", "B", 6.0);
+        graph.insertEdge("H", "L", 2.0);
+        graph.insertEdge("H", "I", 2.0);
+    }
+
+    /**
+     * Checks the shortest paths that are traced through in lecture, both
+     * from the matrix and from a graph that uses it, until the graph changes.
+     */
+    @Test
+    public void testShortestPaths() {
+        DistanceMatrix<String> matrix = DistanceMatrix.build(graph, 2);
+        assertEquals(10, matrix.getNodeCount());
+        assertEquals(List.of("D", "G", "H", "I"), matrix.getPath("D", "I"));
+        assertEquals(13.0, matrix.getCost("D", "I"));
+        assertEquals(List.of(3.0, 4.0, 2.0, 2.0),
+                matrix.shortestPathResult("B", "L").getSegmentCosts());
+        assertEquals(List.of("A"), matrix.getPath("A", "A"));
+        assertThrows(NoSuchElementException.class, () -> matrix.getPath("E", "G"));
+        assertThrows(NoSuchElementException.class, () -> matrix.getCost("A", "Z"));
+
+        graph.setDistanceMatrix(matrix);
+        assertSame(matrix, graph.getDistanceMatrix());
+        assertEquals(13.0, graph.shortestPathCost("D", "I"));
+        assertEquals(List.of("B", "M", "I", "H", "L"), graph.shortestPathData("B", "L"));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("E", "G"));
+
+        // a shortcut that the matrix does not know about
+        graph.insertEdge("D", "I", 1.0);
+        assertTrue(matrix.isStale());
+        assertEquals(1.0, graph.shortestPathCost("D", "I"));
+        assertEquals(List.of("D", "I"), graph.shortestPathData("D", "I"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new DijkstraGraph<String, Double>().setDistanceMatrix(matrix));
+    }
+
+    /**
+     * Checks every pair of campus locations against the shortest path tree
+     * of its start location.
+     */
+    @Test
+    public void testCampusMatchesTrees() throws IOException {
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        new Backend(campus).loadGraphData("campus.dot");
+        DistanceMatrix<String> matrix = DistanceMatrix.build(campus);
+        CompactGraph<String> compact = matrix.getCompactGraph();
+        List<String> locations = campus.getAllNodes();
+        for (String start : locations) {
+            CompactPathTree<String> tree = compact.shortestPathTree(start);
+            for (String end : locations) {
+                int from = compact.indexOf(start);
+                int to = compact.indexOf(end);
+                assertEquals(tree.getCostById(to), matrix.getCostById(from, to));
+                if (tree.isReachable(end)) {
+                    assertEquals(tree.getCost(end), matrix.getCost(start, end));
+                    assertEquals(tree.getPath(end), matrix.getPath(start, end));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,485 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A DotParser reads the nodes and edges of a graph from dot text in a single
+ * pass over its (UTF-8 encoded) bytes, and hands each node and edge to a
+ * Listener as soon as it is parsed. It works on the bytes directly, instead
+ * of splitting lines into substrings: every distinct node name is decoded into
+ * a String only once, the first time it is seen, and edge weights are parsed
+ * straight from the bytes. So the work per edge allocates nothing, and a file
+ * of any size is parsed through a fixed size buffer.
+ *
+ * Each line holds any number of statements, which may be separated by
+ * semicolons. A statement is a node ("Memorial Union";) or an edge
+ * ("Memorial Union" -> "Union South" [seconds=105.8];). Names are quoted (and
+ * may then contain any character, such as -> [ = or an escaped \" quote) or
+ * are plain identifiers and numbers. The weight of an edge is the value of its
+ * weight attribute (seconds, unless another one is selected), and all other
+ * attributes are skipped. Graph headers, braces, node and edge attribute
+ * statements and comments (// or #) are skipped as well. A line that cannot be
+ * parsed, such as an edge without a weight, is counted as malformed and then
+ * skipped, but the statements before it on the same line are kept.
+ */
+public class DotParser {
+
+    /**
+     * Receives the nodes and edges in the order in which they are parsed.
+     */
+    public interface Listener {
+
+        /**
+         * Receives a node statement.
+         *
+         * @param name the name of the node
+         */
+        void node(String name);
+
+        /**
+         * Receives an edge statement. The same name is always passed as the
+         * same String instance.
+         *
+         * @param source the name of the edge's predecessor node
+         * @param target the name of the edge's successor node
+         * @param weight the value of the edge's weight attribute
+         */
+        void edge(String source, String target, double weight);
+    }
+
+    /**
+     * The attribute that edge weights are read from by default.
+     */
+    public static final String DEFAULT_WEIGHT_ATTRIBUTE = "seconds";
+
+    // the size of the buffer that input streams are read through
+    private static final int BUFFER_BYTES = 1 << 16;
+    // more digits than this are not parsed exactly by parseNumber()'s fast path
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Listener listener;
+    private final byte[] weightAttribute;
+
+    // the names seen so far: their UTF-8 bytes one after another, where
+    // each one starts in those bytes, and a hash table that holds the hash
+    // of each name's bytes (upper half) and its index plus one (lower half),
+    // so that most lookups touch only the table and the bytes
+    private long[] slots = new long[1024];
+    private byte[] nameBytes = new byte[1 << 12];
+    private int[] nameStarts = new int[513];
+    private String[] names = new String[512];
+    private int nameCount;
+
+    // the bytes (and their hash) of the name or value that was scanned last
+    private byte[] token = new byte[128];
+    private int tokenLength;
+    private int tokenHash;
+
+    // the line that is being parsed: in.get(pos) up to in.get(end)
+    private ByteBuffer in;
+    private int pos;
+    private int end;
+    // whether the last parseAttributes() call reached the closing bracket
+    private boolean attributesParsed;
+
+    private long lineCount;
+    private long nodeCount;
+    private long edgeCount;
+    private long malformedLineCount;
+    private long firstMalformedLine = -1;
+
+    /**
+     * Creates a parser that reads edge weights from the seconds attribute.
+     *
+     * @param listener receives every node and edge that is parsed
+     */
+    public DotParser(Listener listener) {
+        this(listener, DEFAULT_WEIGHT_ATTRIBUTE);
+    }
+
+    /**
+     * Creates a parser.
+     *
+     * @param listener receives every node and edge that is parsed
+     * @param weightAttribute the name of the attribute holding edge weights
+     */
+    public DotParser(Listener listener, String weightAttribute) {
+        this.listener = listener;
+        this.weightAttribute = weightAttribute.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a dot file.
+     *
+     * @param filename the path of the file to parse
+     * @throws IOException if the file cannot be read
+     */
+    public void parseFile(String filename) throws IOException {
+        try (InputStream input = new FileInputStream(filename)) {
+            parse(input);
+        }
+    }
+
+    /**
+     * Parses all of the dot text that a stream provides, through a buffer
+     * that only grows when a single line does not fit into it.
+     *
+     * @param input the stream to read, which is not closed
+     * @throws IOException if the stream cannot be read
+     */
+    public void parse(InputStream input) throws IOException {
+        byte[] buffer = new byte[BUFFER_BYTES];
+        int filled = 0;
+        while (true) {
+            int read = input.read(buffer, filled, buffer.length - filled);
+            if (read < 0)
+                break;
+            filled += read;
+            int lastNewline = filled - 1;
+            while (lastNewline >= 0 && buffer[lastNewline] != '\n')
+                lastNewline--;
+            if (lastNewline < 0) {
+                if (filled == buffer.length)
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                continue;
+            }
+            // parse the complete lines, and keep the partial last line
+            parseLines(ByteBuffer.wrap(buffer), 0, lastNewline + 1);
+            filled -= lastNewline + 1;
+            System.arraycopy(buffer, lastNewline + 1, buffer, 0, filled);
+        }
+        parseLines(ByteBuffer.wrap(buffer), 0, filled);
+    }
+
+    /**
+     * Parses the dot text between the position and the limit of a buffer,
+     * such as a file that was mapped into memory. The last line does not
+     * need to end with a newline. The buffer's position is left unchanged.
+     *
+     * @param buffer the bytes to parse
+     */
+    public void parse(ByteBuffer buffer) {
+        parseLines(buffer, buffer.position(), buffer.limit());
+    }
+
+    // parses every line in buffer from index from up to index to
+    private void parseLines(ByteBuffer buffer, int from, int to) {
+        in = buffer;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n')
+                lineEnd++;
+            lineCount++;
+            pos = lineStart;
+            end = lineEnd;
+            if (!parseLine()) {
+                malformedLineCount++;
+                if (firstMalformedLine < 0)
+                    firstMalformedLine = lineCount;
+            }
+            lineStart = lineEnd + 1;
+        }
+        in = null;
+    }
+
+    // parses the statements of one line, and returns false if it is malformed
+    private boolean parseLine() {
+        while (true) {
+            skipSpace();
+            if (pos >= end)
+                return true;
+            byte c = in.get(pos);
+            if (c == ';' || c == '{' || c == '}') {
+                pos++;
+            } else if (c == '#' || (c == '/' && pos + 1 < end && in.get(pos + 1) == '/')) {
+                return true;
+            } else if (!parseStatement()) {
+                return false;
+            }
+        }
+    }
+
+    // parses a node or edge statement, or skips a header or attribute statement
+    private boolean parseStatement() {
+        boolean quoted = in.get(pos) == '"';
+        if (!scanId())
+            return false;
+        if (!quoted && (tokenIs("digraph") || tokenIs("graph") || tokenIs("strict")
+                || tokenIs("subgraph"))) {
+            // the rest of the header, up to and including its brace
+            while (pos < end && in.get(pos) != '{')
+                pos++;
+            pos = Math.min(end, pos + 1);
+            return true;
+        }
+        boolean attributeStatement = !quoted && (tokenIs("node") || tokenIs("edge"));
+        String source = attributeStatement ? null : intern();
+        skipSpace();
+
+        if (source != null && pos + 1 < end && in.get(pos) == '-' && in.get(pos + 1) == '>') {
+            pos += 2;
+            skipSpace();
+            if (pos >= end || !scanId())
+                return false;
+            String target = intern();
+            skipSpace();
+            double weight = Double.NaN;
+            if (pos < end && in.get(pos) == '[') {
+                weight = parseAttributes();
+            }
+            if (Double.isNaN(weight))
+                return false;
+            listener.edge(source, target, weight);
+            edgeCount++;
+            return true;
+        }
+        if (pos < end && in.get(pos) == '[') {
+            // nodes need no weight, only a well formed attribute list
+            parseAttributes();
+            if (!attributesParsed)
+                return false;
+        }
+        if (source != null) {
+            listener.node(source);
+            nodeCount++;
+        }
+        return true;
+    }
+
+    // parses [name=value, ...] and returns the weight, or NaN when there is
+    // no weight attribute or the list is malformed (see attributesParsed)
+    private double parseAttributes() {
+        attributesParsed = false;
+        double weight = Double.NaN;
+        pos++; // [
+        while (true) {
+            skipSpace();
+            if (pos >= end)
+                return Double.NaN;
+            byte c = in.get(pos);
+            if (c == ']') {
+                pos++;
+                attributesParsed = true;
+                return weight;
+            }
+            if (c == ',' || c == ';') {
+                pos++;
+                continue;
+            }
+            if (!scanId())
+                return Double.NaN;
+            boolean isWeight = tokenLength == weightAttribute.length
+                    && Arrays.equals(token, 0, tokenLength, weightAttribute, 0, tokenLength);
+            skipSpace();
+            if (pos >= end || in.get(pos) != '=')
+                return Double.NaN;
+            pos++;
+            skipSpace();
+            if (pos >= end || !scanId())
+                return Double.NaN;
+            if (isWeight) {
+                weight = parseNumber();
+                if (Double.isNaN(weight))
+                    return Double.NaN;
+            }
+        }
+    }
+
+    private void skipSpace() {
+        while (pos < end) {
+            byte c = in.get(pos);
+            if (c != ' ' && c != '\t' && c != '\r')
+                return;
+            pos++;
+        }
+    }
+
+    // scans a quoted or plain identifier into token, and returns false if
+    // there is none at pos
+    private boolean scanId() {
+        tokenLength = 0;
+        tokenHash = 0;
+        if (in.get(pos) == '"') {
+            pos++;
+            while (pos < end) {
+                byte c = in.get(pos++);
+                if (c == '"')
+                    return true;
+                if (c == '\\' && pos < end && in.get(pos) == '"')
+                    c = in.get(pos++);
+                append(c);
+            }
+            return false; // no closing quote
+        }
+        while (pos < end) {
+            byte c = in.get(pos);
+            boolean plain = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9') || c == '_' || c == '.' || c == '+' || c < 0
+                    || (c == '-' && !(pos + 1 < end && in.get(pos + 1) == '>'));
+            if (!plain)
+                break;
+            append(c);
+            pos++;
+        }
+        return tokenLength > 0;
+    }
+
+    private void append(byte c) {
+        if (tokenLength == token.length)
+            token = Arrays.copyOf(token, token.length * 2);
+        token[tokenLength++] = c;
+        tokenHash = 31 * tokenHash + c;
+    }
+
+    private boolean tokenIs(String keyword) {
+        if (tokenLength != keyword.length())
+            return false;
+        for (int i = 0; i < tokenLength; i++)
+            if (token[i] != keyword.charAt(i))
+                return false;
+        return true;
+    }
+
+    // returns the String for the name in token, decoding it if it is new
+    private String intern() {
+        int mask = slots.length - 1;
+        int slot = slotOf(tokenHash, mask);
+        for (long entry; (entry = slots[slot]) != 0; slot = (slot + 1) & mask) {
+            if ((int) (entry >>> 32) == tokenHash) {
+                int index = (int) entry - 1;
+                int start = nameStarts[index];
+                if (nameStarts[index + 1] - start == tokenLength && Arrays.equals(nameBytes,
+                        start, start + tokenLength, token, 0, tokenLength))
+                    return names[index];
+            }
+        }
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+            nameStarts = Arrays.copyOf(nameStarts, nameCount * 2 + 1);
+        }
+        int start = nameStarts[nameCount];
+        if (start + tokenLength > nameBytes.length)
+            nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2,
+                    start + tokenLength));
+        System.arraycopy(token, 0, nameBytes, start, tokenLength);
+        String name = new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+        names[nameCount] = name;
+        nameStarts[nameCount + 1] = start + tokenLength;
+        nameCount++;
+        slots[slot] = (long) tokenHash << 32 | nameCount;
+        if (nameCount * 2 > slots.length)
+            rehash();
+        return name;
+    }
+
+    private void rehash() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long entry : old) {
+            if (entry == 0)
+                continue;
+            int slot = slotOf((int) (entry >>> 32), mask);
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = entry;
+        }
+    }
+
+    private static int slotOf(int hash, int mask) {
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // parses the number in token, or returns NaN if it is not a number
+    private double parseNumber() {
+        int i = 0;
+        boolean negative = false;
+        if (tokenLength > 0 && (token[0] == '-' || token[0] == '+')) {
+            negative = token[0] == '-';
+            i++;
+        }
+        // a number with few enough digits is exactly mantissa / 10^scale,
+        // and dividing two exact doubles rounds just like parseDouble does
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean any = false;
+        for (; i < tokenLength; i++) {
+            byte c = token[i];
+            if (c >= '0' && c <= '9') {
+                any = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0)
+                    digits++;
+                if (point)
+                    scale++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (i == tokenLength && any && digits <= MAX_FAST_DIGITS && scale < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return the number of lines parsed so far
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the number of node statements parsed so far
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of edge statements parsed so far
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the number of distinct node names seen so far
+     */
+    public int getNameCount() {
+        return nameCount;
+    }
+
+    /**
+     * @return the number of lines that could not be parsed (and were skipped)
+     */
+    public long getMalformedLineCount() {
+        return malformedLineCount;
+    }
+
+    /**
+     * @return the line number (starting at 1) of the first line that could
+     *         not be parsed, or -1 if every line was parsed
+     */
+    public long getFirstMalformedLine() {
+        return firstMalformedLine;
+    }
+}
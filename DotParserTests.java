@@ -0,0 +1,165 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that DotParser reads nodes, edges and weights the way they are
+ * written, no matter how the text is split into reads, and that it counts
+ * the lines that it cannot parse.
+ */
+public class DotParserTests {
+
+    // records the statements that a parser reports, as strings
+    private static class Recorder implements DotParser.Listener {
+        final List<String> statements = new ArrayList<>();
+
+        @Override
+        public void node(String name) {
+            statements.add(name);
+        }
+
+        @Override
+        public void edge(String source, String target, double weight) {
+            statements.add(source + " -> " + target + " " + weight);
+        }
+    }
+
+    // an input stream that never returns more than a few bytes per read
+    private static class TrickleStream extends InputStream {
+        private final InputStream in;
+
+        TrickleStream(byte[] bytes) {
+            in = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, Math.min(len, 3));
+        }
+    }
+
+    private static final String DOT = String.join("\n",
+            "digraph campus {",
+            "\t\"Memorial Union\";",
+            "\t\"Memorial Union\" -> \"Union South\" [seconds=105.8];",
+            "\t// a comment",
+            "\t\"A -> B\" -> \"x[y=z]\" [color=red, seconds=7];",
+            "\t\"say \\\"hi\\\"\" -> plain_name [seconds=1e2]; a -> b [seconds=0.1]",
+            "\tnode [shape=box];",
+            "\t\"Caf\u00e9\" -> \"Union South\" [ seconds = 2.5 ]",
+            "}");
+
+    private static final List<String> EXPECTED = List.of(
+            "Memorial Union",
+            "Memorial Union -> Union South 105.8",
+            "A -> B -> x[y=z] 7.0",
+            "say \"hi\" -> plain_name 100.0",
+            "a -> b 0.1",
+            "Caf\u00e9 -> Union South 2.5");
+
+    /**
+     * Checks the statements parsed from a buffer, and from a stream that
+     * splits lines (and multi-byte characters) across reads.
+     */
+    @Test
+    public void testStatementsAreParsed() throws IOException {
+        byte[] bytes = DOT.getBytes(StandardCharsets.UTF_8);
+        Recorder fromBuffer = new Recorder();
+        DotParser parser = new DotParser(fromBuffer);
+        parser.parse(ByteBuffer.wrap(bytes));
+        assertEquals(EXPECTED, fromBuffer.statements);
+        assertEquals(9, parser.getLineCount());
+        assertEquals(1, parser.getNodeCount());
+        assertEquals(5, parser.getEdgeCount());
+        assertEquals(9, parser.getNameCount());
+        assertEquals(0, parser.getMalformedLineCount());
+        assertEquals(-1, parser.getFirstMalformedLine());
+
+        Recorder fromStream = new Recorder();
+        new DotParser(fromStream).parse(new TrickleStream(bytes));
+        assertEquals(EXPECTED, fromStream.statements);
+    }
+
+    /**
+     * Checks that malformed lines are counted and skipped, and that the
+     * lines around them are still parsed.
+     */
+    @Test
+    public void testMalformedLinesAreCounted() throws IOException {
+        String dot = String.join("\n",
+                "a -> b [seconds=1];",
+                "a -> b;",                       // no weight
+                "a -> b [seconds=fast];",        // not a number
+                "\"unterminated -> b [seconds=1];",
+                "a -> [seconds=1];",             // no target
+                "c -> d [weight=4]; e -> f [seconds=2", // no seconds, and no ]
+                "g -> h [weight=4];",
+                "");
+        Recorder recorder = new Recorder();
+        DotParser parser = new DotParser(recorder);
+        parser.parse(new ByteArrayInputStream(dot.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of("a -> b 1.0"), recorder.statements);
+        assertEquals(6, parser.getMalformedLineCount());
+        assertEquals(2, parser.getFirstMalformedLine());
+
+        // the same text, with another weight attribute
+        Recorder weights = new Recorder();
+        DotParser byWeight = new DotParser(weights, "weight");
+        byWeight.parse(ByteBuffer.wrap(dot.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of("c -> d 4.0", "g -> h 4.0"), weights.statements);
+        assertEquals(6, byWeight.getMalformedLineCount());
+    }
+
+    /**
+     * Checks that weights are parsed to exactly the same doubles as
+     * Double.parseDouble returns.
+     */
+    @Test
+    public void testWeightsMatchParseDouble() {
+        String[] numbers = {"0", "105.8", "1.1", "0.3", "99.99", "-2.5", "+4", "123456789.012345",
+                "0.000000000000000000001", "1.5699999999999998", "3.141592653589793238",
+                "1e-3", "2E+10", "9007199254740993", ".5", "5."};
+        StringBuilder dot = new StringBuilder();
+        for (String number : numbers)
+            dot.append("a -> b [seconds=").append(number).append("]\n");
+        List<Double> weights = new ArrayList<>();
+        new DotParser(new DotParser.Listener() {
+            @Override
+            public void node(String name) {
+            }
+
+            @Override
+            public void edge(String source, String target, double weight) {
+                weights.add(weight);
+            }
+        }).parse(ByteBuffer.wrap(dot.toString().getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(numbers.length, weights.size());
+        for (int i = 0; i < numbers.length; i++)
+            assertEquals(Double.parseDouble(numbers[i]), weights.get(i), numbers[i]);
+    }
+
+    /**
+     * Checks that campus.dot loads through the backend with all of its
+     * locations, and nothing else.
+     */
+    @Test
+    public void testCampusLoads() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        Backend backend = new Backend(graph);
+        backend.loadGraphData("campus.dot");
+        assertEquals(0, backend.getMalformedLineCount());
+        assertFalse(graph.containsNode("}"));
+        assertTrue(graph.containsEdge("Memorial Union", "Science Hall"));
+    }
+}
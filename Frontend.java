@@ -6,6 +6,11 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 
 public class Frontend implements FrontendInterface {
+    /**
+     * The most alternative routes that a single request may ask for.
+     */
+    public static final int MAX_ALTERNATIVES = 10;
+
     BackendInterface backend;
 
     public Frontend(BackendInterface backend) {
@@ -24,6 +29,9 @@ public class Frontend implements FrontendInterface {
                 "    <label for='end'>End Location</label>\n" +
                 "    <input type='text' id='end' name='end' placeholder='Enter Ending Location'>\n" +
                 "    <br><br>\n" +
+                "    <label for='alternatives'>Number of Routes</label>\n" +
+                "    <input type='number' id='alternatives' name='alternatives' value='1' min='1' max='" + MAX_ALTERNATIVES + "'>\n" +
+                "    <br><br>\n" +
                 "    <button type='submit' id='findShortestPath'>Find Shortest Path</button>\n" +
                 "</form>";
     }
@@ -39,14 +47,14 @@ public class Frontend implements FrontendInterface {
             start = URLDecoder.decode(start, StandardCharsets.UTF_8);
             end = URLDecoder.decode(end, StandardCharsets.UTF_8);
             
-            List<String> path = backend.findLocationsOnShortestPath(start, end);
+            // one search finds both the locations and the time of the path
+            PathResult<String> result = backend.findShortestPath(start, end);
+            List<String> path = result.getNodes();
 
-            if (path == null || path.isEmpty()) {
+            if (path.isEmpty()) {
                 return "<p>No path found between '" + start + "' and '" + end + "'. Please verify location names match exactly as they appear in the graph.</p>";
             }
 
-            List<Double> times = backend.findTimesOnShortestPath(start, end);
-
             StringBuilder html = new StringBuilder();
             html.append("<p>Shortest path from '" + start + "' to '" + end + "':</p>\n");
             html.append("<ol>\n");
@@ -57,7 +65,8 @@ public class Frontend implements FrontendInterface {
 
             html.append("</ol>\n");
 
-            double totalTime = times.get(times.size() - 1);
+            // the sum of every segment, as for each of several alternative routes
+            double totalTime = result.getTotalCost();
             html.append("<p>Total travel time: " + String.format("%.2f", totalTime) + " minutes</p>\n");
 
             return html.toString();
@@ -67,6 +76,49 @@ public class Frontend implements FrontendInterface {
         }
     }
 
+    public String generateAlternativePathsResponseHTML(String start, String end, String count) {
+        int routes;
+        try {
+            routes = count == null || count.trim().isEmpty() ? 1 : Integer.parseInt(count.trim());
+        } catch (NumberFormatException e) {
+            return "<p>Please enter a whole number of routes.</p>";
+        }
+        if (routes < 1 || routes > MAX_ALTERNATIVES) {
+            return "<p>Please ask for between 1 and " + MAX_ALTERNATIVES + " routes.</p>";
+        }
+        if (routes == 1) {
+            return generateShortestPathResponseHTML(start, end);
+        }
+        if (start == null || start.trim().isEmpty() || end == null || end.trim().isEmpty()) {
+            return "<p>Please enter both start and end locations.</p>";
+        }
+
+        try {
+            start = URLDecoder.decode(start, StandardCharsets.UTF_8);
+            end = URLDecoder.decode(end, StandardCharsets.UTF_8);
+
+            List<PathResult<String>> paths = backend.findAlternativePaths(start, end, routes);
+            if (paths.isEmpty()) {
+                return "<p>No path found between '" + start + "' and '" + end + "'. Please verify location names match exactly as they appear in the graph.</p>";
+            }
+
+            StringBuilder html = new StringBuilder();
+            html.append("<p>" + paths.size() + " shortest routes from '" + start + "' to '" + end + "':</p>\n");
+            for (int i = 0; i < paths.size(); i++) {
+                html.append("<p>Route " + (i + 1) + ", total travel time: "
+                        + String.format("%.2f", paths.get(i).getTotalCost()) + " minutes</p>\n");
+                html.append("<ol>\n");
+                for (String location : paths.get(i).getNodes()) {
+                    html.append("    <li>" + location + "</li>\n");
+                }
+                html.append("</ol>\n");
+            }
+            return html.toString();
+        } catch (Exception e) {
+            return "<p>Error finding routes: " + e.getMessage() + "</p>";
+        }
+    }
+
     public String generateClosestDestinationsFromAllPromptHTML() {
         return "<h2>Find Closest Destination</h2>\n" +
                 "<form action='/' method='get'>\n" +
@@ -104,18 +156,12 @@ public class Frontend implements FrontendInterface {
             }
             html.append("</ul>\n");
 
-            String closestDest = backend.getClosestDestinationFromAll(startLocations);
-
-            double totalTime = 0.0;
-            for (String start : startLocations) {
-                List<Double> times = backend.findTimesOnShortestPath(start, closestDest);
-                if (!times.isEmpty()) {
-                    totalTime += times.get(times.size() - 1);
-                }
-            }
+            // one call finds the destination and the time from every start
+            MeetingPoint<String> meetingPoint = backend.findMeetingPoint(startLocations,
+                    MeetingPoint.Criterion.SUM, null);
 
-            html.append("<p>Closest destination to all starting points: " + closestDest + "</p>\n");
-            html.append("<p>Total combined travel time: " + String.format("%.2f", totalTime) + " minutes</p>\n");
+            html.append("<p>Closest destination to all starting points: " + meetingPoint.getLocation() + "</p>\n");
+            html.append("<p>Total combined travel time: " + String.format("%.2f", meetingPoint.getScore()) + " minutes</p>\n");
 
             return html.toString();
         } catch (Exception e) {
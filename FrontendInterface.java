@@ -47,6 +47,24 @@ public interface FrontendInterface {
      */
     public String generateShortestPathResponseHTML(String start, String end);
 
+    /**
+     * Returns an HTML fragment that can be embedded within the body of a
+     * larger html page.  This HTML output should include, for each of up to
+     * count routes from start to end, shortest first:
+     * - a paragraph (p) that includes the total travel time along this route
+     * - an ordered list (ol) of locations along this route
+     * When count is 1, the HTML should be the same as the HTML that
+     * generateShortestPathResponseHTML() returns. If there is no such path,
+     * or count is not a number of routes that can be requested, the HTML
+     * returned should instead indicate the kind of problem encountered.
+     * @param start is the starting location of the routes
+     * @param end is the destination that these routes should end at
+     * @param count is the number of routes requested, as entered
+     * @return an HTML string that describes the shortest routes between
+     *         these two locations
+     */
+    public String generateAlternativePathsResponseHTML(String start, String end, String count);
+
     /**
      * Returns an HTML fragment that can be embedded within the body of a
      * larger html page.  This HTML output should include:
@@ -53,7 +53,8 @@ public class FrontendTests {
         assertTrue(html.contains("<li>Union South</li>"));
         assertTrue(html.contains("<li>Computer Sciences and Statistics</li>"));
         assertTrue(html.contains("<li>Atmospheric, Oceanic and Space Sciences</li>"));
-        assertTrue(html.contains("<p>Total travel time: 3.00 minutes</p>"));
+        // the placeholder's three locations are 2.00 and 3.00 minutes apart
+        assertTrue(html.contains("<p>Total travel time: 5.00 minutes</p>"));
     }
 
     /**
@@ -121,8 +122,8 @@ public class FrontendTests {
         assertTrue(response.contains("Chemistry Building"));
 
         // Verify total travel time is included and correct
-        // The actual time is 6.00 minutes (5.0 to CS + 6.0 to Chemistry)
-        assertTrue(response.contains("Total travel time: 6.00 minutes"));
+        // The actual time is 11.00 minutes (5.0 to CS + 6.0 to Chemistry)
+        assertTrue(response.contains("Total travel time: 11.00 minutes"));
     }
 
     /**
@@ -186,7 +187,34 @@ public class FrontendTests {
         assertTrue(response.contains("<li>Engineering Hall</li>"));
         assertTrue(response.contains("<li>Chemistry Building</li>"));
 
-        // Verify total time is correct (actual implementation returns 2.00 minutes)
-        assertTrue(response.contains("Total travel time: 2.00 minutes"));
+        // Verify total time is correct (4.0 to Engineering Hall + 2.0 to Chemistry)
+        assertTrue(response.contains("Total travel time: 6.00 minutes"));
+    }
+
+    /**
+     * Integration test verifying that alternative routes are listed shortest
+     * first, and that a single route is shown as the shortest path.
+     */
+    @Test
+    public void testIntegrationAlternativeRoutes() {
+        Frontend frontend = setupTestEnvironment();
+        assertTrue(frontend.generateShortestPathPromptHTML().contains(
+                "<input type='number' id='alternatives' name='alternatives' value='1' min='1' max='10'>"));
+
+        // Memorial Union -> Computer Sciences -> Chemistry Building, and the
+        // longer way around through Union South and Engineering Hall
+        String response = frontend.generateAlternativePathsResponseHTML(
+                "Memorial Union", "Chemistry Building", "3");
+        assertTrue(response.contains("<p>2 shortest routes from 'Memorial Union' to 'Chemistry Building':</p>"));
+        assertTrue(response.contains("<p>Route 1, total travel time: 11.00 minutes</p>"));
+        assertTrue(response.contains("<p>Route 2, total travel time: 14.00 minutes</p>"));
+        assertTrue(response.indexOf("Route 1") < response.indexOf("<li>Engineering Hall</li>"));
+
+        assertEquals(frontend.generateShortestPathResponseHTML("Memorial Union", "Chemistry Building"),
+                frontend.generateAlternativePathsResponseHTML("Memorial Union", "Chemistry Building", "1"));
+        assertTrue(frontend.generateAlternativePathsResponseHTML(
+                "Memorial Union", "Chemistry Building", "many").contains("whole number"));
+        assertTrue(frontend.generateAlternativePathsResponseHTML(
+                "Chemistry Building", "Memorial Union", "2").contains("No path found"));
     }
 }
@@ -106,6 +106,16 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    */
   public int getEdgeCount();
 
+  /**
+   * Return the number of changes that were made to the graph so far. Every
+   * node or edge that is inserted, updated or removed increases this count,
+   * so anything computed from the graph is out of date once the count
+   * differs from when it was computed.
+   *
+   * @return the number of modifications made to the graph
+   */
+  public long getModificationCount();
+
   /**
    * Returns the list of data values from nodes along the shortest path from 
    * the node with the provided start value through the node with the provided
@@ -137,5 +147,35 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    *         start node to the end node
    */
   public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the data values from nodes along the shortest path from the node
+   * with the provided start value through the node with the provided end
+   * value, together with the weight of each edge along that path and the
+   * total cost of the path. All of these come from a single run of
+   * Dijkstra's shortest path algorithm.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the nodes, edge weights and cost of this shortest path
+   * @throws NoSuchElementException if either the start or end node cannot
+   *         be found in the graph, or if there is no directed path from the
+   *         start node to the end node
+   */
+  public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest paths from the node with the provided start value
+   * to every node that can be reached from it. All of these paths are found
+   * by a single run of Dijkstra's shortest path algorithm, so this is much
+   * cheaper than calling shortestPathCost once for each destination.
+   *
+   * @param start the data item in the starting node for the paths
+   * @return the tree of shortest paths from start to every reachable node
+   * @throws NoSuchElementException if the start node cannot be found in the
+   *         graph
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start);
+
     
 }
@@ -0,0 +1,225 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A GraphBuilder collects nodes and weighted edges, and then builds a graph
+ * from all of them at once. Inserting edges into a BaseGraph one at a time
+ * searches the predecessor's edge list for an existing edge every time, which
+ * makes loading a graph take time proportional to the sum of the squared node
+ * degrees. The builder instead finds all duplicate edges at once, by counting
+ * sorting the edges by predecessor and successor, and then appends every
+ * edge straight to its nodes' edge lists. So building takes O(V + E) time.
+ *
+ * The built graph is exactly the graph that inserting the same nodes and
+ * edges one at a time, in the order they were added, would produce: when an
+ * edge is added more than once, it keeps the position of its first addition
+ * and the weight of its last, and every node's edge lists are in the order
+ * in which their edges were first added.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class GraphBuilder<NodeType> {
+
+    // node data by id, in the order of first addition, and each node's id
+    private Object[] data = new Object[64];
+    private final Map<NodeType, Integer> ids = new HashMap<>();
+    private int nodeCount;
+
+    // the edges in the order they were added, between node ids
+    private int[] preds = new int[256];
+    private int[] succs = new int[256];
+    private double[] weights = new double[256];
+    private int edgeCount;
+
+    /**
+     * Adds a node, unless it was added before.
+     *
+     * @param node the data of the node
+     * @return the id of the node within this builder
+     * @throws NullPointerException if node is null
+     */
+    public int addNode(NodeType node) {
+        if (node == null)
+            throw new NullPointerException("Graph nodes cannot be null");
+        Integer id = ids.get(node);
+        if (id != null)
+            return id;
+        if (nodeCount == data.length)
+            data = Arrays.copyOf(data, nodeCount * 2);
+        data[nodeCount] = node;
+        ids.put(node, nodeCount);
+        return nodeCount++;
+    }
+
+    /**
+     * Adds an edge, and its nodes unless they were added before. When the
+     * same edge is added again, the graph keeps the last weight.
+     *
+     * @param pred the data of the edge's predecessor node
+     * @param succ the data of the edge's successor node
+     * @param weight the weight of the edge
+     */
+    public void addEdge(NodeType pred, NodeType succ, double weight) {
+        int predId = addNode(pred);
+        int succId = addNode(succ);
+        addEdgeIds(predId, succId, weight);
+    }
+
+    /**
+     * Adds a batch of edges, as if by calling addEdge for each of them.
+     *
+     * @param preds the data of each edge's predecessor node
+     * @param succs the data of each edge's successor node
+     * @param weights the weight of each edge
+     * @param count the number of edges in the batch
+     */
+    public void addEdges(NodeType[] preds, NodeType[] succs, double[] weights, int count) {
+        ensureEdgeCapacity(edgeCount + count);
+        for (int i = 0; i < count; i++)
+            addEdge(preds[i], succs[i], weights[i]);
+    }
+
+    /**
+     * Adds every node and edge of a compact graph, such as one read from a
+     * graph file or by a ParallelDotLoader.
+     *
+     * @param graph the graph to add
+     */
+    public void addGraph(CompactGraph<NodeType> graph) {
+        int n = graph.getNodeCount();
+        int[] idOf = new int[n];
+        for (int v = 0; v < n; v++)
+            idOf[v] = addNode(graph.nodeAt(v));
+        ensureEdgeCapacity(edgeCount + graph.targets.length);
+        for (int v = 0; v < n; v++)
+            for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++)
+                addEdgeIds(idOf[v], idOf[graph.targets[i]], graph.weights[i]);
+    }
+
+    private void addEdgeIds(int pred, int succ, double weight) {
+        ensureEdgeCapacity(edgeCount + 1);
+        preds[edgeCount] = pred;
+        succs[edgeCount] = succ;
+        weights[edgeCount] = weight;
+        edgeCount++;
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+        if (capacity > preds.length) {
+            int grown = Math.max(capacity, preds.length * 2);
+            preds = Arrays.copyOf(preds, grown);
+            succs = Arrays.copyOf(succs, grown);
+            weights = Arrays.copyOf(weights, grown);
+        }
+    }
+
+    /**
+     * @return the number of distinct nodes added so far
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of edges added so far, including duplicates
+     */
+    public int getAddedEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Builds a new DijkstraGraph with the nodes and edges added so far.
+     *
+     * @return the new graph
+     */
+    public DijkstraGraph<NodeType, Double> build() {
+        DijkstraGraph<NodeType, Double> graph = new DijkstraGraph<>();
+        buildInto(graph);
+        return graph;
+    }
+
+    /**
+     * Inserts the nodes and edges added so far into a graph. An empty
+     * BaseGraph (such as a DijkstraGraph) is filled in bulk, while any other
+     * graph gets one insertNode and insertEdge call per node and edge, in
+     * the order in which they were first added.
+     *
+     * @param graph the graph to insert into
+     */
+    @SuppressWarnings("unchecked")
+    public void buildInto(GraphADT<NodeType, Double> graph) {
+        boolean[] kept = keepFirstAdditions();
+        if (graph instanceof BaseGraph && graph.getNodeCount() == 0) {
+            fill((BaseGraph<NodeType, Double>) graph, kept);
+            return;
+        }
+        for (int id = 0; id < nodeCount; id++)
+            graph.insertNode((NodeType) data[id]);
+        for (int e = 0; e < edgeCount; e++)
+            if (kept[e])
+                graph.insertEdge((NodeType) data[preds[e]], (NodeType) data[succs[e]], weights[e]);
+    }
+
+    // marks the first addition of every distinct edge, and moves the weight
+    // of its last addition there
+    private boolean[] keepFirstAdditions() {
+        // stably sort the edges by successor, then by predecessor, so that
+        // the additions of each edge end up next to each other, in order
+        int[] bySucc = countingSort(succs, null);
+        int[] sorted = countingSort(preds, bySucc);
+        boolean[] kept = new boolean[edgeCount];
+        for (int i = 0; i < edgeCount; ) {
+            int first = sorted[i];
+            int last = first;
+            for (i++; i < edgeCount && preds[sorted[i]] == preds[first]
+                    && succs[sorted[i]] == succs[first]; i++)
+                last = sorted[i];
+            kept[first] = true;
+            weights[first] = weights[last];
+        }
+        return kept;
+    }
+
+    // returns the positions of the edges (in order) stably sorted by key
+    private int[] countingSort(int[] keys, int[] order) {
+        int[] start = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++)
+            start[keys[e] + 1]++;
+        for (int v = 0; v < nodeCount; v++)
+            start[v + 1] += start[v];
+        int[] sorted = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            int e = order == null ? i : order[i];
+            sorted[start[keys[e]]++] = e;
+        }
+        return sorted;
+    }
+
+    // creates the nodes and edges of an empty graph directly
+    private void fill(BaseGraph<NodeType, Double> graph, boolean[] kept) {
+        List<BaseGraph<NodeType, Double>.Node> nodes = new ArrayList<>(nodeCount);
+        for (int id = 0; id < nodeCount; id++) {
+            // data only ever holds the NodeType items passed to addNode()
+            @SuppressWarnings("unchecked")
+            BaseGraph<NodeType, Double>.Node node = graph.new Node((NodeType) data[id]);
+            graph.nodes.put(node.data, node);
+            nodes.add(node);
+        }
+        int edges = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (!kept[e])
+                continue;
+            BaseGraph<NodeType, Double>.Node pred = nodes.get(preds[e]);
+            BaseGraph<NodeType, Double>.Node succ = nodes.get(succs[e]);
+            BaseGraph<NodeType, Double>.Edge edge = graph.new Edge(weights[e], pred, succ);
+            pred.edgesLeaving.add(edge);
+            succ.edgesEntering.add(edge);
+            edges++;
+        }
+        // the graph had no nodes, so it had no edges either
+        graph.countInsertions(nodeCount, edges);
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a GraphBuilder builds the same graph as inserting its nodes and
+ * edges one at a time.
+ */
+public class GraphBuilderTests {
+
+    // checks that both graphs have the same nodes, and the same edge lists in
+    // the same order
+    private static void assertSameGraph(DijkstraGraph<String, Double> expected,
+            DijkstraGraph<String, Double> actual) {
+        assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (String node : expected.getAllNodes()) {
+            assertEquals(describe(expected.nodes.get(node).edgesLeaving),
+                    describe(actual.nodes.get(node).edgesLeaving));
+            assertEquals(describe(expected.nodes.get(node).edgesEntering),
+                    describe(actual.nodes.get(node).edgesEntering));
+        }
+    }
+
+    private static String describe(List<BaseGraph<String, Double>.Edge> edges) {
+        StringBuilder text = new StringBuilder();
+        for (BaseGraph<String, Double>.Edge edge : edges)
+            text.append(edge.predecessor.data).append("->").append(edge.successor.data)
+                    .append('=').append(edge.data).append(' ');
+        return text.toString();
+    }
+
+    /**
+     * Checks random edges with many duplicates, added one at a time and in
+     * batches, against a graph that they were inserted into one at a time.
+     */
+    @Test
+    public void testMatchesOneAtATimeInsertion() {
+        DijkstraGraph<String, Double> inserted = new DijkstraGraph<>();
+        GraphBuilder<String> builder = new GraphBuilder<>();
+        Random random = new Random(400);
+        String[] preds = new String[100];
+        String[] succs = new String[100];
+        double[] weights = new double[100];
+        for (int batch = 0; batch < 50; batch++) {
+            for (int i = 0; i < preds.length; i++) {
+                preds[i] = "n" + random.nextInt(60);
+                succs[i] = "n" + random.nextInt(60);
+                weights[i] = random.nextInt(1000) / 10.0;
+                inserted.insertNode(preds[i]);
+                inserted.insertNode(succs[i]);
+                inserted.insertEdge(preds[i], succs[i], weights[i]);
+            }
+            if (batch % 2 == 0) {
+                builder.addEdges(preds, succs, weights, preds.length);
+            } else {
+                for (int i = 0; i < preds.length; i++)
+                    builder.addEdge(preds[i], succs[i], weights[i]);
+            }
+        }
+        inserted.insertNode("lonely");
+        builder.addNode("lonely");
+        assertEquals(5000, builder.getAddedEdgeCount());
+
+        DijkstraGraph<String, Double> built = builder.build();
+        assertSameGraph(inserted, built);
+        assertTrue(built.getModificationCount() > 0);
+        assertEquals(inserted.shortestPathData("n1", "n2"), built.shortestPathData("n1", "n2"));
+
+        // a compact copy adds the same edges, though in another order
+        GraphBuilder<String> copy = new GraphBuilder<>();
+        copy.addGraph(CompactGraph.freeze(built));
+        DijkstraGraph<String, Double> copied = copy.build();
+        assertEquals(built.getEdgeCount(), copied.getEdgeCount());
+        for (String pred : built.getAllNodes())
+            for (String succ : built.getAllNodes())
+                if (built.containsEdge(pred, succ))
+                    assertEquals(built.getEdge(pred, succ), copied.getEdge(pred, succ));
+    }
+
+    /**
+     * Checks that a graph that already has nodes keeps them, and has the
+     * builder's edges inserted (or updated) one at a time.
+     */
+    @Test
+    public void testBuildIntoGraphWithNodes() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        graph.insertNode("A");
+        graph.insertNode("B");
+        graph.insertEdge("A", "B", 1.0);
+        GraphBuilder<String> builder = new GraphBuilder<>();
+        builder.addEdge("A", "B", 2.0);
+        builder.addEdge("B", "C", 3.0);
+        builder.addEdge("A", "B", 4.0);
+        builder.buildInto(graph);
+        assertEquals(3, graph.getNodeCount());
+        assertEquals(2, graph.getEdgeCount());
+        assertEquals(4.0, graph.getEdge("A", "B"));
+        assertEquals(3.0, graph.getEdge("B", "C"));
+        assertThrows(NullPointerException.class, () -> builder.addNode(null));
+    }
+}
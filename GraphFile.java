@@ -0,0 +1,221 @@
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A GraphFile stores a CompactGraph with String nodes in a binary file, so
+ * that it can be loaded again without parsing a dot file. The file is opened
+ * with FileChannel.map(), and its arrays are copied straight out of the
+ * mapped file: loading a graph is little more than a few bulk copies and
+ * decoding the node names.
+ *
+ * All values are little endian. The file starts with a 32 byte header:
+ *
+ *     int   MAGIC
+ *     int   VERSION, files of other versions are rejected
+ *     int   n, the number of nodes
+ *     int   m, the number of edges
+ *     int   the number of bytes of node names
+ *     int   0 (unused)
+ *     long  CRC32 checksum of everything after the header
+ *
+ * which is followed by the string table and the CSR arrays of the graph (see
+ * CompactGraph):
+ *
+ *     int[n+1]    where each node's name starts in the name bytes
+ *     int[n+1]    where each node's edges start in the edge arrays
+ *     int[m]      the successor id of each edge
+ *     int         0, if needed so that the weights start at a multiple of 8
+ *     double[m]   the weight of each edge
+ *     byte[]      the UTF-8 encoded node names
+ */
+public class GraphFile {
+
+    /**
+     * The first four bytes of every graph file ("CGRF" in ASCII).
+     */
+    public static final int MAGIC = 0x46524743;
+
+    /**
+     * The version of the file format that this class writes and reads.
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+
+    /**
+     * Writes a graph to a file, replacing the file if it exists.
+     *
+     * @param graph the graph to write
+     * @param filename the path of the file to write
+     * @throws IOException if the file cannot be written, or if the graph is
+     *         too large for this format (2 GB)
+     */
+    public static void write(CompactGraph<String> graph, String filename) throws IOException {
+        int n = graph.getNodeCount();
+        int m = graph.targets.length;
+        byte[][] names = new byte[n][];
+        int[] nameOffsets = new int[n + 1];
+        for (int id = 0; id < n; id++) {
+            names[id] = graph.nodeAt(id).getBytes(StandardCharsets.UTF_8);
+            nameOffsets[id + 1] = nameOffsets[id] + names[id].length;
+        }
+        long size = fileSize(n, m, nameOffsets[n]);
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Graph is too large for a graph file: " + size + " bytes");
+
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            file.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(nameOffsets[n]).putInt(0);
+            file.putLong(0); // the checksum, once the rest has been written
+
+            ByteBuffer body = file.slice(HEADER_BYTES, (int) size - HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            putInts(body, nameOffsets);
+            putInts(body, graph.offsets);
+            putInts(body, graph.targets);
+            if (body.position() % Double.BYTES != 0)
+                body.putInt(0);
+            body.asDoubleBuffer().put(graph.weights);
+            body.position(body.position() + m * Double.BYTES);
+            for (byte[] name : names)
+                body.put(name);
+
+            file.putLong(24, checksum(body.flip()));
+            file.force();
+        }
+    }
+
+    /**
+     * Reads a graph from a file that was written by write().
+     *
+     * @param filename the path of the file to read
+     * @return the graph stored in that file
+     * @throws IOException if the file cannot be read, is not a graph file of
+     *         this version, is truncated, or does not match its checksum
+     */
+    public static CompactGraph<String> read(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE)
+                throw new IOException(filename + " is not a graph file");
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            if (file.getInt() != MAGIC)
+                throw new IOException(filename + " is not a graph file");
+            int version = file.getInt();
+            if (version != VERSION)
+                throw new IOException(filename + " is a version " + version
+                        + " graph file, but only version " + VERSION + " is supported");
+            int n = file.getInt();
+            int m = file.getInt();
+            int nameBytes = file.getInt();
+            file.getInt();
+            long expectedChecksum = file.getLong();
+            if (n < 0 || m < 0 || nameBytes < 0 || fileSize(n, m, nameBytes) != size)
+                throw new IOException(filename + " is truncated or has a damaged header");
+
+            ByteBuffer body = file.slice(HEADER_BYTES, (int) size - HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (checksum(body.duplicate()) != expectedChecksum)
+                throw new IOException(filename + " does not match its checksum");
+
+            int[] nameOffsets = getInts(body, n + 1);
+            int[] offsets = getInts(body, n + 1);
+            int[] targets = getInts(body, m);
+            if (body.position() % Double.BYTES != 0)
+                body.getInt();
+            double[] weights = new double[m];
+            body.asDoubleBuffer().get(weights);
+            body.position(body.position() + m * Double.BYTES);
+            byte[] names = new byte[nameBytes];
+            body.get(names);
+
+            Object[] data = new Object[n];
+            for (int id = 0; id < n; id++)
+                data[id] = new String(names, nameOffsets[id],
+                        nameOffsets[id + 1] - nameOffsets[id], StandardCharsets.UTF_8);
+            return new CompactGraph<>(data, offsets, targets, weights);
+        }
+    }
+
+    /**
+     * Checks whether a file starts like a graph file, without reading the
+     * rest of it.
+     *
+     * @param filename the path of the file to check
+     * @return true if the file starts with MAGIC
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isGraphFile(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+            return Integer.reverseBytes(in.readInt()) == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    // the size of a file with this many nodes, edges and name bytes
+    private static long fileSize(int n, int m, int nameBytes) {
+        long ints = HEADER_BYTES + 4L * (2L * (n + 1) + m);
+        return (ints + 7) / 8 * 8 + 8L * m + nameBytes;
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    // the CRC32 of the remaining bytes of a buffer
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    /**
+     * Converts a dot file into a graph file, for example:
+     * java GraphFile campus.dot campus.graph
+     *
+     * @param args the dot file to read, and optionally the graph file to
+     *        write (by default, the dot file's name with a .graph extension)
+     * @throws IOException if either file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: java GraphFile <dot file> [<graph file>]");
+            return;
+        }
+        String output = args.length > 1 ? args[1] : GraphSnapshot.siblingFile(args[0], ".graph");
+        long started = System.nanoTime();
+        CompactGraph<String> compact = new ParallelDotLoader().load(args[0]);
+        long parsed = System.nanoTime();
+        write(compact, output);
+        long written = System.nanoTime();
+        read(output);
+        long read = System.nanoTime();
+        System.out.printf("Wrote %d nodes and %d edges to %s: parsing took %.1f ms, "
+                + "writing %.1f ms and reading it back %.1f ms%n", compact.getNodeCount(),
+                compact.getEdgeCount(), output, (parsed - started) / 1e6,
+                (written - parsed) / 1e6, (read - written) / 1e6);
+    }
+}
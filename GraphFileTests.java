@@ -0,0 +1,84 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a graph written to a graph file reads back with the same nodes,
+ * edges and shortest paths, and that damaged files are rejected.
+ */
+public class GraphFileTests {
+
+    private DijkstraGraph<String, Double> campus;
+    private File file;
+
+    @BeforeEach
+    public void writeCampus() throws IOException {
+        campus = new DijkstraGraph<>();
+        new Backend(campus).loadGraphData("campus.dot");
+        file = File.createTempFile("campus", ".graph");
+        file.deleteOnExit();
+        GraphFile.write(CompactGraph.freeze(campus), file.getPath());
+    }
+
+    /**
+     * Checks that every node and edge is read back, both by read() and by
+     * Backend.loadGraphData().
+     */
+    @Test
+    public void testReadMatchesWrittenGraph() throws IOException {
+        assertTrue(GraphFile.isGraphFile(file.getPath()));
+        assertFalse(GraphFile.isGraphFile("campus.dot"));
+        CompactGraph<String> read = GraphFile.read(file.getPath());
+        DijkstraGraph<String, Double> loaded = new DijkstraGraph<>();
+        new Backend(loaded).loadGraphData(file.getPath());
+
+        List<String> nodes = campus.getAllNodes();
+        assertEquals(nodes.size(), read.getNodeCount());
+        assertEquals(campus.getEdgeCount(), read.getEdgeCount());
+        assertEquals(campus.getEdgeCount(), loaded.getEdgeCount());
+        for (String pred : nodes) {
+            for (String succ : nodes) {
+                assertEquals(campus.containsEdge(pred, succ), read.containsEdge(pred, succ));
+                if (campus.containsEdge(pred, succ)) {
+                    assertEquals(campus.getEdge(pred, succ), read.getEdge(pred, succ));
+                    assertEquals(campus.getEdge(pred, succ), loaded.getEdge(pred, succ));
+                }
+            }
+        }
+        assertEquals(campus.shortestPathData("Memorial Union", "Union South"),
+                read.shortestPathData("Memorial Union", "Union South"));
+    }
+
+    /**
+     * Checks that a changed byte, a truncated file and another version are
+     * all rejected.
+     */
+    @Test
+    public void testDamagedFilesAreRejected() throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length() - 1);
+            int last = raw.read();
+            raw.seek(raw.length() - 1);
+            raw.write(last ^ 1);
+        }
+        IOException checksum = assertThrows(IOException.class, () -> GraphFile.read(file.getPath()));
+        assertTrue(checksum.getMessage().contains("checksum"));
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() - 8);
+        }
+        assertThrows(IOException.class, () -> GraphFile.read(file.getPath()));
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(4);
+            raw.write(GraphFile.VERSION + 1);
+        }
+        IOException version = assertThrows(IOException.class, () -> GraphFile.read(file.getPath()));
+        assertTrue(version.getMessage().contains("version"));
+        assertThrows(IOException.class, () -> GraphFile.read("campus.dot"));
+    }
+}
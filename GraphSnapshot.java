@@ -0,0 +1,176 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A GraphSnapshot holds one fully loaded campus graph, together with the
+ * Backend and Frontend built on top of it. A snapshot is completely loaded
+ * before anyone can see it and is never modified afterwards, so a single
+ * instance can be shared by every request handling thread without locking.
+ * Reloading the graph means building a new snapshot and swapping it in, while
+ * requests that are already running keep using the snapshot they started with.
+ */
+public class GraphSnapshot {
+
+    // system property that selects contraction hierarchies, see load()
+    public static final String CONTRACTION_HIERARCHY_PROPERTY = "graph.contractionHierarchy";
+    // system property that limits the memory of cached trees, see load()
+    public static final String TREE_CACHE_BYTES_PROPERTY = "graph.treeCacheBytes";
+    // system property that limits the graphs that get a distance matrix
+    public static final String DISTANCE_MATRIX_MAX_NODES_PROPERTY = "graph.distanceMatrixMaxNodes";
+
+    private final String filename;
+    private final GraphADT<String, Double> graph;
+    private final BackendInterface backend;
+    private final FrontendInterface frontend;
+    private final long loadedAt;
+
+    private GraphSnapshot(String filename, GraphADT<String, Double> graph,
+            BackendInterface backend, FrontendInterface frontend) {
+        this.filename = filename;
+        this.graph = graph;
+        this.backend = backend;
+        this.frontend = frontend;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates a working DijkstraGraph, Backend and Frontend from the graph
+     * data in the provided dot file. When a landmark file with the same name
+     * but a .landmarks extension sits next to the dot file (for example
+     * campus.landmarks next to campus.dot, see LandmarkHeuristic.main()),
+     * point to point searches run A* with those landmarks, and the file is
+     * rebuilt when it no longer matches the graph. Otherwise, when a .coords
+     * file sits next to the dot file, they run A* with a CoordinateHeuristic
+     * built from those coordinates.
+     *
+     * When the system property graph.contractionHierarchy is true (java
+     * -Dgraph.contractionHierarchy=true WebApp), a ContractionHierarchy is
+     * built for the graph as well, which then answers all point to point
+     * searches, since the graph of a snapshot is never modified.
+     *
+     * Shortest path trees are cached for the start locations that are used
+     * most, up to DijkstraGraph.DEFAULT_TREE_CACHE_BYTES of memory, or as many
+     * bytes as the system property graph.treeCacheBytes selects (0 turns the
+     * tree cache off). With landmarks or coordinates, point to point searches
+     * never start a cached tree, and only answer from the complete trees that
+     * closest destination and meeting point queries cache, so that every
+     * other point to point search runs A*.
+     *
+     * Graphs with at most DistanceMatrix.DEFAULT_MAX_NODES nodes (or as many
+     * as the system property graph.distanceMatrixMaxNodes selects, where 0
+     * turns the matrix off) get a DistanceMatrix of the shortest paths
+     * between all of their nodes, which then answers all point to point
+     * searches with a lookup. Larger graphs are searched on demand.
+     *
+     * When a graph file with a .graph extension (see GraphFile.main()) sits
+     * next to the dot file and is not older than it, the graph is loaded from
+     * that file instead of parsing the dot file.
+     *
+     * @param filename the path to a dot file to read graph data from
+     * @return a new snapshot that is ready to answer requests
+     * @throws IOException if there was any problem reading from this file
+     */
+    public static GraphSnapshot load(String filename) throws IOException {
+        return load(filename, true);
+    }
+
+    /**
+     * Creates a working DijkstraGraph, Backend and Frontend from the graph
+     * data in the provided dot file, like load(filename). Without precompute,
+     * nothing is computed ahead of the requests: there is no distance
+     * matrix, tree cache or contraction hierarchy, which only pay off over
+     * many requests, such as for a JVM that answers a single query.
+     *
+     * @param filename the path to a dot file to read graph data from
+     * @param precompute false to skip everything that is computed for later
+     *        requests, rather than while reading the graph
+     * @return a new snapshot that is ready to answer requests
+     * @throws IOException if there was any problem reading from this file
+     */
+    public static GraphSnapshot load(String filename, boolean precompute) throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        if (precompute) {
+            graph.setTreeCacheBytes(Long.getLong(TREE_CACHE_BYTES_PROPERTY,
+                    DijkstraGraph.DEFAULT_TREE_CACHE_BYTES));
+        }
+        BackendInterface backend = new Backend(graph);
+        File dotFile = new File(filename);
+        File graphFile = new File(siblingFile(filename, ".graph"));
+        if (graphFile.isFile() && graphFile.lastModified() >= dotFile.lastModified()) {
+            backend.loadGraphData(graphFile.getPath());
+        } else {
+            backend.loadGraphData(filename);
+        }
+        String landmarkFile = siblingFile(filename, ".landmarks");
+        String coordinatesFile = siblingFile(filename, ".coords");
+        if (new File(landmarkFile).isFile()) {
+            graph.setHeuristic(LandmarkHeuristic.loadOrBuild(landmarkFile, graph,
+                    LandmarkHeuristic.DEFAULT_LANDMARK_COUNT));
+        } else if (new File(coordinatesFile).isFile()) {
+            graph.setHeuristic(new CoordinateHeuristic<>(graph,
+                    CoordinateHeuristic.loadCoordinates(coordinatesFile)));
+        }
+        if (!precompute) {
+            return new GraphSnapshot(filename, graph, backend, new Frontend(backend));
+        }
+        if (Boolean.getBoolean(CONTRACTION_HIERARCHY_PROPERTY)) {
+            graph.setContractionHierarchy(ContractionHierarchy.build(graph));
+        }
+        int matrixMaxNodes = Integer.getInteger(DISTANCE_MATRIX_MAX_NODES_PROPERTY,
+                DistanceMatrix.DEFAULT_MAX_NODES);
+        if (graph.getNodeCount() > 0 && graph.getNodeCount() <= matrixMaxNodes) {
+            graph.setDistanceMatrix(DistanceMatrix.build(graph));
+        }
+        return new GraphSnapshot(filename, graph, backend, new Frontend(backend));
+    }
+
+    /**
+     * Returns the name of a file that belongs to a dot file, with the same
+     * name but another extension.
+     *
+     * @param filename the path to a dot file
+     * @param extension the extension of the other file, such as ".coords"
+     * @return the path to that other file
+     */
+    static String siblingFile(String filename, String extension) {
+        int dot = filename.lastIndexOf('.');
+        int slash = filename.lastIndexOf(File.separatorChar);
+        String base = dot > slash + 1 ? filename.substring(0, dot) : filename;
+        return base + extension;
+    }
+
+    /**
+     * @return the dot file this snapshot was loaded from
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * @return the graph of this snapshot, which must only be read from
+     */
+    public GraphADT<String, Double> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the backend that answers queries against this snapshot
+     */
+    public BackendInterface getBackend() {
+        return backend;
+    }
+
+    /**
+     * @return the frontend that generates html for this snapshot
+     */
+    public FrontendInterface getFrontend() {
+        return frontend;
+    }
+
+    /**
+     * @return the time (in milliseconds since the epoch) this snapshot loaded
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.NoSuchElementException;
 public class Graph_Placeholder implements GraphADT<String, Double> {
 
   protected List<String> path;
+  protected long modifications = 0;
 
   public Graph_Placeholder() {
     path = new ArrayList<>();
@@ -20,13 +21,14 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
   }
 
   public boolean insertNode(String data) {
-    if(path.size() < 4) { path.add(data); return true; }
+    if(path.size() < 4) { path.add(data); modifications++; return true; }
     else return false;
   }
 
   public boolean removeNode(String data) {
     if(path.size() > 3 && path.contains(data)) {
 	path.remove(data);
+	modifications++;
 	return true;
     }
     else return false;
@@ -69,6 +71,10 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
     return path.size() - 1;
   }
 
+  public long getModificationCount() {
+    return modifications;
+  }
+
   public List<String> shortestPathData(String start, String end) {
     boolean capture = false;
     ArrayList<String> list = new ArrayList<>();
@@ -91,4 +97,23 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
     return sum;
   }
 
+  public PathResult<String> shortestPathResult(String start, String end) {
+    List<String> nodes = shortestPathData(start,end);
+    List<Double> segments = new ArrayList<>();
+    for(int i=1;i<nodes.size();i++) segments.add(getEdge(nodes.get(i-1),nodes.get(i)));
+    return new PathResult<>(nodes, segments, shortestPathCost(start,end));
+  }
+
+  public ShortestPathTree<String> shortestPathTree(String start) {
+    if(!path.contains(start)) throw new NoSuchElementException();
+    return new ShortestPathTree<String>() {
+      public String getStart() { return start; }
+      public boolean isReachable(String end) {
+        return path.contains(end) && path.indexOf(end) >= path.indexOf(start);
+      }
+      public double getCost(String end) { return shortestPathCost(start,end); }
+      public List<String> getPath(String end) { return shortestPathData(start,end); }
+    };
+  }
+
 }
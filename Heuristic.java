@@ -0,0 +1,24 @@
+/**
+ * A Heuristic estimates the cost of the shortest path between two nodes, to
+ * steer an A* search towards its destination. Estimates must be admissible:
+ * they may never be larger than the actual cost of the shortest path. They
+ * should also be consistent: for every edge from u to v with weight w,
+ * estimate(u, end) should be no larger than w + estimate(v, end), so that a
+ * node is never settled more than once.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public interface Heuristic<NodeType> {
+
+    /**
+     * Returns a lower bound on the cost of the shortest path from one node to
+     * another.
+     *
+     * @param from the data item in the node where the path starts
+     * @param to the data item in the node where the path ends
+     * @return a lower bound on the cost of that path, which is never negative,
+     *         and may be infinite when it is known that there is no path
+     */
+    public double estimate(NodeType from, NodeType to);
+
+}
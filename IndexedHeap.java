@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This IndexedHeap class is a d-ary min heap of int items (node ids) from 0 to
+ * capacity-1, each ordered by a double key. Unlike java.util.PriorityQueue, it
+ * keeps track of where every item is stored, so an item's key can be lowered
+ * in place (decrease-key) instead of adding a second entry for that item. All
+ * storage is allocated up front in primitive arrays, so no operation on the
+ * heap allocates any memory.
+ */
+public class IndexedHeap {
+
+    private final int arity;
+    // items and their keys by position in the heap, position 0 is the min
+    private final int[] items;
+    private final double[] keys;
+    // the heap position of each item, or -1 if that item is not in the heap
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Creates an empty heap for items 0 through capacity-1.
+     *
+     * @param capacity the number of distinct items
+     * @param arity the number of children of each heap position (at least 2)
+     */
+    public IndexedHeap(int capacity, int arity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        this.arity = arity;
+        this.items = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        this.size = 0;
+    }
+
+    /**
+     * Creates an empty 4-ary heap for items 0 through capacity-1.
+     *
+     * @param capacity the number of distinct items
+     */
+    public IndexedHeap(int capacity) {
+        this(capacity, 4);
+    }
+
+    /**
+     * @return true if no items are stored in this heap
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of items stored in this heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param item the item to check for
+     * @return true if item is currently stored in this heap
+     */
+    public boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    /**
+     * @return the smallest key in this heap
+     * @throws NoSuchElementException when the heap is empty
+     */
+    public double peekKey() {
+        if (size == 0)
+            throw new NoSuchElementException("Heap is empty");
+        return keys[0];
+    }
+
+    /**
+     * Adds an item to the heap, or lowers its key if it is already stored
+     * with a larger key. Nothing changes if it is stored with a key that is
+     * smaller or equal.
+     *
+     * @param item the item to add or update
+     * @param key the new key for that item
+     */
+    public void offer(int item, double key) {
+        int position = positions[item];
+        if (position < 0) {
+            position = size++;
+        } else if (keys[position] <= key) {
+            return;
+        }
+        siftUp(position, item, key);
+    }
+
+    /**
+     * Changes the key of an item that is stored in this heap, whether the
+     * new key is smaller or larger than its current key, or adds the item
+     * when it is not stored yet.
+     *
+     * @param item the item to add or update
+     * @param key the new key for that item
+     */
+    public void update(int item, double key) {
+        int position = positions[item];
+        if (position < 0) {
+            siftUp(size++, item, key);
+        } else if (key < keys[position]) {
+            siftUp(position, item, key);
+        } else {
+            siftDown(position, item, key);
+        }
+    }
+
+    /**
+     * Removes the item with the smallest key from this heap.
+     *
+     * @return the removed item
+     * @throws NoSuchElementException when the heap is empty
+     */
+    public int poll() {
+        if (size == 0)
+            throw new NoSuchElementException("Heap is empty");
+        int min = items[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0)
+            siftDown(0, items[size], keys[size]);
+        return min;
+    }
+
+    /**
+     * Removes all items from this heap, in time proportional to the number
+     * of items that are stored rather than to its capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[items[i]] = -1;
+        size = 0;
+    }
+
+    // moves item towards the root from position until its parent is smaller
+    private void siftUp(int position, int item, double key) {
+        while (position > 0) {
+            int parent = (position - 1) / arity;
+            if (keys[parent] <= key)
+                break;
+            place(position, items[parent], keys[parent]);
+            position = parent;
+        }
+        place(position, item, key);
+    }
+
+    // moves item away from the root from position until no child is smaller
+    private void siftDown(int position, int item, double key) {
+        while (true) {
+            int first = position * arity + 1;
+            if (first >= size)
+                break;
+            int last = Math.min(first + arity, size);
+            int smallest = first;
+            for (int child = first + 1; child < last; child++)
+                if (keys[child] < keys[smallest])
+                    smallest = child;
+            if (keys[smallest] >= key)
+                break;
+            place(position, items[smallest], keys[smallest]);
+            position = smallest;
+        }
+        place(position, item, key);
+    }
+
+    private void place(int position, int item, double key) {
+        items[position] = item;
+        keys[position] = key;
+        positions[item] = position;
+    }
+}
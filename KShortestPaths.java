@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * KShortestPaths finds the k shortest loopless paths between two nodes of a
+ * CompactGraph with Yen's algorithm, such as to offer alternative routes.
+ * Every path after the first is found by branching off one of the paths
+ * found before: for each node along that path (the spur node), a spur search
+ * finds the shortest path from the spur node to the end node that neither
+ * revisits the nodes before the spur node nor leaves it along an edge that
+ * an earlier path with the same beginning took. The cheapest of all the
+ * branched paths (the candidates) is the next shortest path.
+ *
+ * Instead of removing and reinserting nodes and edges, every spur search is
+ * a masked search of one DijkstraEngine (see searchMasked()), so the spur
+ * searches allocate no memory. They all share one backward search from the
+ * end node, whose distances are exact lower bounds on the remaining cost of
+ * every node and steer each spur search straight towards the end node. As
+ * in Lawler's variant of the algorithm, a path only branches off at or after
+ * the node where it branched off its own parent path, since the branches
+ * before that node were all tried for the parent already.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class KShortestPaths<NodeType> {
+
+    private final CompactGraph<NodeType> graph;
+
+    /**
+     * Creates a finder of alternative paths in a graph.
+     *
+     * @param graph the graph to find paths in
+     */
+    public KShortestPaths(CompactGraph<NodeType> graph) {
+        this.graph = graph;
+    }
+
+    // a path found by a spur search, by node ids
+    private static class Candidate implements Comparable<Candidate> {
+        final int[] nodes;
+        final double cost;
+        // the index of the node where this path branched off its parent
+        final int deviation;
+        // the order in which candidates were found, to break ties
+        final int sequence;
+
+        Candidate(int[] nodes, double cost, int deviation, int sequence) {
+            this.nodes = nodes;
+            this.cost = cost;
+            this.deviation = deviation;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (cost != other.cost)
+                return Double.compare(cost, other.cost);
+            if (nodes.length != other.nodes.length)
+                return Integer.compare(nodes.length, other.nodes.length);
+            return Integer.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Candidate && Arrays.equals(nodes, ((Candidate) other).nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+
+    /**
+     * Finds the k shortest paths from start to end that do not visit any node
+     * twice, in order of increasing cost. There are fewer than k paths when
+     * the graph has fewer loopless paths between these nodes.
+     *
+     * @param start the data item in the starting node for the paths
+     * @param end   the data item in the destination node for the paths
+     * @param k     the most paths to find
+     * @return the nodes, edge weights and cost of each path, cheapest first,
+     *         or no paths at all when end cannot be reached from start
+     * @throws NoSuchElementException if either node cannot be found
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public List<PathResult<NodeType>> find(NodeType start, NodeType end, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("k must be at least 1: " + k);
+        int s = graph.indexOf(start);
+        int t = graph.indexOf(end);
+        List<Candidate> found = new ArrayList<>();
+        DijkstraEngine engine = graph.acquireEngine();
+        try {
+            engine.searchBackward(t, -1);
+            double[] bounds = engine.copyDistances();
+            if (bounds[s] == Double.POSITIVE_INFINITY)
+                return new ArrayList<>();
+
+            int[] nodeMask = new int[graph.getNodeCount()];
+            int[] edgeMask = new int[graph.targets.length];
+            // nothing is masked with 1 until the first spur search
+            int mask = 1;
+            engine.searchMasked(s, t, nodeMask, edgeMask, mask, bounds);
+            found.add(new Candidate(engine.path(t), engine.distance(t), 0, 0));
+
+            PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+            Set<Candidate> seen = new HashSet<>(found);
+            int sequence = 1;
+            while (found.size() < k) {
+                Candidate last = found.get(found.size() - 1);
+                double rootCost = 0.0;
+                for (int j = 0; j < last.nodes.length - 1; j++) {
+                    if (j > 0)
+                        rootCost += edgeWeight(last.nodes[j - 1], last.nodes[j]);
+                    if (j < last.deviation)
+                        continue;
+                    mask++;
+                    // the edges that the paths with the same root take next
+                    for (Candidate path : found)
+                        if (path.nodes.length > j + 1
+                                && Arrays.equals(path.nodes, 0, j + 1, last.nodes, 0, j + 1))
+                            edgeMask[graph.edgeIndex(path.nodes[j], path.nodes[j + 1])] = mask;
+                    // the root before the spur node, so the path stays loopless
+                    for (int r = 0; r < j; r++)
+                        nodeMask[last.nodes[r]] = mask;
+                    if (!engine.searchMasked(last.nodes[j], t, nodeMask, edgeMask, mask, bounds))
+                        continue;
+
+                    int[] spur = engine.path(t);
+                    int[] nodes = Arrays.copyOf(last.nodes, j + spur.length);
+                    System.arraycopy(spur, 0, nodes, j, spur.length);
+                    Candidate candidate = new Candidate(nodes, rootCost + engine.distance(t),
+                            j, sequence++);
+                    if (seen.add(candidate))
+                        candidates.add(candidate);
+                }
+                if (candidates.isEmpty())
+                    break;
+                found.add(candidates.poll());
+            }
+        } finally {
+            graph.releaseEngine(engine);
+        }
+
+        List<PathResult<NodeType>> paths = new ArrayList<>(found.size());
+        for (Candidate path : found)
+            paths.add(graph.pathResult(path.nodes, path.cost));
+        return paths;
+    }
+
+    // the weight of the edge between two nodes along a path
+    private double edgeWeight(int pred, int succ) {
+        return graph.weights[graph.edgeIndex(pred, succ)];
+    }
+}
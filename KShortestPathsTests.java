@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that KShortestPaths finds the same paths as trying every loopless
+ * path, and that the alternative campus routes are loopless and in order.
+ */
+public class KShortestPathsTests {
+
+    /**
+     * Compares the k shortest paths of small random graphs with all of their
+     * loopless paths, sorted by cost.
+     */
+    @Test
+    public void testMatchesAllLooplessPaths() {
+        Random random = new Random(25);
+        for (int round = 0; round < 40; round++) {
+            DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+            int n = 4 + random.nextInt(5);
+            for (int v = 0; v < n; v++)
+                graph.insertNode(v);
+            for (int e = 0; e < n * 3; e++) {
+                int pred = random.nextInt(n);
+                int succ = random.nextInt(n);
+                // random weights, so that no two paths tie
+                if (pred != succ)
+                    graph.insertEdge(pred, succ, 1.0 + random.nextDouble() * 9.0);
+            }
+
+            List<Double> all = new ArrayList<>();
+            allLooplessCosts(graph, 0, n - 1, new HashSet<>(List.of(0)), 0.0, all);
+            all.sort(null);
+            int k = 1 + random.nextInt(8);
+            List<PathResult<Integer>> paths = graph.kShortestPaths(0, n - 1, k);
+            assertEquals(Math.min(k, all.size()), paths.size());
+            for (int i = 0; i < paths.size(); i++) {
+                assertEquals(all.get(i), paths.get(i).getTotalCost(), 1e-9);
+                double sum = 0.0;
+                for (double segment : paths.get(i).getSegmentCosts())
+                    sum += segment;
+                assertEquals(sum, paths.get(i).getTotalCost(), 1e-9);
+            }
+        }
+    }
+
+    // adds the cost of every loopless path from node to end
+    private static void allLooplessCosts(DijkstraGraph<Integer, Double> graph, int node, int end,
+            HashSet<Integer> visited, double cost, List<Double> costs) {
+        if (node == end) {
+            costs.add(cost);
+            return;
+        }
+        for (int next : graph.getAllNodes()) {
+            if (!visited.contains(next) && graph.containsEdge(node, next)) {
+                visited.add(next);
+                allLooplessCosts(graph, next, end, visited, cost + graph.getEdge(node, next), costs);
+                visited.remove(next);
+            }
+        }
+    }
+
+    /**
+     * Checks five alternative campus routes, and the results for nodes that
+     * cannot be reached or do not exist.
+     */
+    @Test
+    public void testCampusAlternatives() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend(graph).loadGraphData("campus.dot");
+        String start = "Memorial Union";
+        String end = "Computer Sciences and Statistics";
+        List<PathResult<String>> paths = graph.kShortestPaths(start, end, 5);
+        assertEquals(5, paths.size());
+        assertEquals(graph.shortestPathCost(start, end), paths.get(0).getTotalCost(), 1e-9);
+        HashSet<List<String>> distinct = new HashSet<>();
+        for (int i = 0; i < paths.size(); i++) {
+            List<String> nodes = paths.get(i).getNodes();
+            assertEquals(start, nodes.get(0));
+            assertEquals(end, nodes.get(nodes.size() - 1));
+            assertEquals(nodes.size(), new HashSet<>(nodes).size());
+            assertTrue(distinct.add(nodes));
+            if (i > 0)
+                assertTrue(paths.get(i - 1).getTotalCost() <= paths.get(i).getTotalCost());
+        }
+
+        assertEquals(List.of(List.of(start)),
+                graph.kShortestPaths(start, start, 3).stream().map(PathResult::getNodes).toList());
+        graph.insertNode("Island");
+        assertTrue(graph.kShortestPaths(start, "Island", 3).isEmpty());
+        assertThrows(NoSuchElementException.class, () -> graph.kShortestPaths(start, "Nowhere", 3));
+        assertThrows(IllegalArgumentException.class, () -> graph.kShortestPaths(start, end, 0));
+    }
+}
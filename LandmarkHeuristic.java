@@ -0,0 +1,330 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A LandmarkHeuristic implements the ALT (A*, landmarks and triangle
+ * inequality) lower bounds, which need nothing but the graph's edge weights.
+ * A few landmark nodes are chosen up front, and the shortest distances from
+ * every landmark to every node, and from every node to every landmark, are
+ * stored in two primitive arrays. Because no path can be shorter than a
+ * detour through a landmark L allows, the cost from v to t is at least both
+ * dist(L, t) - dist(L, v) and dist(v, L) - dist(t, L), and the estimate is the
+ * largest of these bounds over all landmarks.
+ *
+ * The tables describe the graph as it was when they were computed. Once that
+ * graph is modified, every estimate is 0.0 (which is always admissible) until
+ * a new LandmarkHeuristic is built. Tables can be saved to a file and loaded
+ * again later, so that the preprocessing does not have to be repeated on
+ * every startup.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class LandmarkHeuristic<NodeType> implements Heuristic<NodeType> {
+
+    // the number of landmarks used when none is specified
+    public static final int DEFAULT_LANDMARK_COUNT = 16;
+
+    // identifies a saved landmark file, "ALT" followed by a format version
+    private static final int MAGIC = 0x414C5401;
+
+    private final BaseGraph<NodeType, ?> graph;
+    private final long modificationCount;
+    private final CompactGraph<NodeType> compact;
+    private final int[] landmarks;
+    // distances from (and to) every landmark, by node: [v * k + i] is the
+    // distance from (or to) landmark i for node v, or infinity if no path
+    private final double[] fromLandmark;
+    private final double[] toLandmark;
+
+    private LandmarkHeuristic(BaseGraph<NodeType, ?> graph, long modificationCount,
+            CompactGraph<NodeType> compact, int[] landmarks, double[] fromLandmark,
+            double[] toLandmark) {
+        this.graph = graph;
+        this.modificationCount = modificationCount;
+        this.compact = compact;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Chooses landmarks for the provided graph and computes their distance
+     * tables. The landmarks are spread out by farthest point selection: each
+     * next landmark is the node that is farthest from every landmark chosen
+     * so far, and nodes that no landmark can reach (or be reached from) are
+     * chosen first, so that every part of a disconnected graph is covered.
+     *
+     * @param graph the graph that will be searched
+     * @param count the number of landmarks to choose (at most one per node)
+     * @return a heuristic for searching that graph
+     */
+    public static <NodeType, EdgeType extends Number> LandmarkHeuristic<NodeType> build(
+            BaseGraph<NodeType, EdgeType> graph, int count) {
+        long modificationCount = graph.getModificationCount();
+        CompactGraph<NodeType> compact = CompactGraph.freeze(graph);
+        int n = compact.getNodeCount();
+        int k = Math.max(0, Math.min(count, n));
+        int[] landmarks = new int[k];
+        double[] fromLandmark = new double[n * k];
+        double[] toLandmark = new double[n * k];
+        // distance between each node and its closest landmark, either way
+        double[] closest = new double[n];
+        Arrays.fill(closest, -1.0);
+
+        DijkstraEngine engine = compact.acquireEngine();
+        try {
+            // start with the node that is farthest from an arbitrary node
+            int next = 0;
+            if (k > 0) {
+                engine.search(0, -1);
+                for (int v = 0; v < n; v++) {
+                    double d = engine.distance(v);
+                    if (d < Double.POSITIVE_INFINITY && d > engine.distance(next))
+                        next = v;
+                }
+            }
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = next;
+                engine.search(next, -1);
+                for (int v = 0; v < n; v++)
+                    fromLandmark[v * k + i] = engine.distance(v);
+                engine.searchBackward(next, -1);
+                for (int v = 0; v < n; v++)
+                    toLandmark[v * k + i] = engine.distance(v);
+
+                next = -1;
+                for (int v = 0; v < n; v++) {
+                    double d = Math.min(fromLandmark[v * k + i], toLandmark[v * k + i]);
+                    if (closest[v] < 0 || d < closest[v])
+                        closest[v] = d;
+                    if (closest[v] > 0 && (next < 0 || closest[v] > closest[next]))
+                        next = v;
+                }
+                if (next < 0)
+                    return new LandmarkHeuristic<>(graph, modificationCount, compact,
+                            Arrays.copyOf(landmarks, i + 1), shrink(fromLandmark, n, k, i + 1),
+                            shrink(toLandmark, n, k, i + 1));
+            }
+        } finally {
+            compact.releaseEngine(engine);
+        }
+        return new LandmarkHeuristic<>(graph, modificationCount, compact, landmarks,
+                fromLandmark, toLandmark);
+    }
+
+    // keeps the first count columns of a table with k columns per node
+    private static double[] shrink(double[] table, int n, int k, int count) {
+        double[] shrunk = new double[n * count];
+        for (int v = 0; v < n; v++)
+            System.arraycopy(table, v * k, shrunk, v * count, count);
+        return shrunk;
+    }
+
+    /**
+     * Returns the largest lower bound that any landmark provides on the cost
+     * of the shortest path from one node to another. The estimate is infinite
+     * when a landmark proves that there is no such path, and 0.0 when the
+     * graph was modified after the landmark tables were computed.
+     *
+     * @param from the data item in the node where the path starts
+     * @param to the data item in the node where the path ends
+     * @return a lower bound on the cost of that path
+     */
+    public double estimate(NodeType from, NodeType to) {
+        if (isStale())
+            return 0.0;
+        int k = landmarks.length;
+        int s = compact.indexOf(from) * k;
+        int t = compact.indexOf(to) * k;
+        double bound = 0.0;
+        for (int i = 0; i < k; i++) {
+            // a landmark that reaches from also reaches to, if to can be reached
+            double fromS = fromLandmark[s + i];
+            if (fromS < Double.POSITIVE_INFINITY) {
+                double fromT = fromLandmark[t + i];
+                if (fromT == Double.POSITIVE_INFINITY)
+                    return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, fromT - fromS);
+            }
+            // and from reaches every landmark that to reaches, if it reaches to
+            double toT = toLandmark[t + i];
+            if (toT < Double.POSITIVE_INFINITY) {
+                double toS = toLandmark[s + i];
+                if (toS == Double.POSITIVE_INFINITY)
+                    return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, toS - toT);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * @return true if the graph was modified after these tables were computed
+     */
+    public boolean isStale() {
+        return graph.getModificationCount() != modificationCount;
+    }
+
+    /**
+     * @return the data items in the landmark nodes, in the order chosen
+     */
+    public List<NodeType> getLandmarks() {
+        List<NodeType> list = new ArrayList<>(landmarks.length);
+        for (int id : landmarks)
+            list.add(compact.nodeAt(id));
+        return list;
+    }
+
+    /**
+     * Writes the landmark tables to a file. Nodes are identified by their
+     * toString() in that file, together with a fingerprint of all edges, so
+     * that load() can tell whether the file still matches a graph.
+     *
+     * @param filename the path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String filename) throws IOException {
+        int n = compact.getNodeCount();
+        int k = landmarks.length;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeInt(compact.getEdgeCount());
+            out.writeInt(k);
+            out.writeLong(fingerprint(compact));
+            for (int v = 0; v < n; v++)
+                out.writeUTF(compact.nodeAt(v).toString());
+            for (int id : landmarks)
+                out.writeInt(id);
+            for (double d : fromLandmark)
+                out.writeDouble(d);
+            for (double d : toLandmark)
+                out.writeDouble(d);
+        }
+    }
+
+    /**
+     * Reads landmark tables that were saved for the provided graph. The file
+     * may list the nodes in a different order than the graph does, but must
+     * describe exactly the same nodes and edges.
+     *
+     * @param filename the path of the file to read
+     * @param graph the graph that will be searched
+     * @return a heuristic for searching that graph
+     * @throws IOException if the file cannot be read, is not a landmark file,
+     *         or was saved for a graph with different nodes or edges
+     */
+    public static <NodeType, EdgeType extends Number> LandmarkHeuristic<NodeType> load(
+            String filename, BaseGraph<NodeType, EdgeType> graph) throws IOException {
+        long modificationCount = graph.getModificationCount();
+        CompactGraph<NodeType> compact = CompactGraph.freeze(graph);
+        int n = compact.getNodeCount();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(filename + " is not a landmark file");
+            if (in.readInt() != n || in.readInt() != compact.getEdgeCount())
+                throw new IOException(filename + " was saved for a graph of a different size");
+            int k = in.readInt();
+            if (in.readLong() != fingerprint(compact))
+                throw new IOException(filename + " was saved for a graph with different edges");
+
+            // map each saved node position to the id of that node in graph
+            MapADT<String, Integer> ids = new ProbingHashtableMap<>(n * 2);
+            for (int v = 0; v < n; v++)
+                ids.put(compact.nodeAt(v).toString(), v);
+            int[] savedToId = new int[n];
+            for (int v = 0; v < n; v++) {
+                String name = in.readUTF();
+                if (!ids.containsKey(name))
+                    throw new IOException(filename + " was saved for a graph without " + name);
+                savedToId[v] = ids.get(name);
+            }
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++)
+                landmarks[i] = savedToId[in.readInt()];
+            double[] fromLandmark = new double[n * k];
+            double[] toLandmark = new double[n * k];
+            for (double[] table : new double[][] {fromLandmark, toLandmark})
+                for (int v = 0; v < n; v++)
+                    for (int i = 0; i < k; i++)
+                        table[savedToId[v] * k + i] = in.readDouble();
+            return new LandmarkHeuristic<>(graph, modificationCount, compact, landmarks,
+                    fromLandmark, toLandmark);
+        }
+    }
+
+    /**
+     * Loads the landmark tables for a graph from a file, or builds them (and
+     * tries to save them to that file for next time) when the file is missing
+     * or no longer matches the graph.
+     *
+     * @param filename the path of the landmark file
+     * @param graph the graph that will be searched
+     * @param count the number of landmarks to choose when building tables
+     * @return a heuristic for searching that graph
+     */
+    public static <NodeType, EdgeType extends Number> LandmarkHeuristic<NodeType> loadOrBuild(
+            String filename, BaseGraph<NodeType, EdgeType> graph, int count) {
+        try {
+            return load(filename, graph);
+        } catch (IOException e) {
+            LandmarkHeuristic<NodeType> heuristic = build(graph, count);
+            try {
+                heuristic.save(filename);
+            } catch (IOException ignored) {
+                // the tables still work, they just get rebuilt next time
+            }
+            return heuristic;
+        }
+    }
+
+    // a hash of every edge, which does not depend on the order of node ids
+    private static long fingerprint(CompactGraph<?> compact) {
+        long sum = 0;
+        for (int v = 0; v < compact.getNodeCount(); v++) {
+            long from = compact.nodeAt(v).toString().hashCode();
+            for (int i = compact.offsets[v]; i < compact.offsets[v + 1]; i++) {
+                long h = from * 0x9E3779B97F4A7C15L
+                        + compact.nodeAt(compact.targets[i]).toString().hashCode();
+                h = (h ^ Double.doubleToLongBits(compact.weights[i])) * 0xBF58476D1CE4E5B9L;
+                sum += h ^ (h >>> 31);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Precomputes the landmark tables for a dot file, and saves them next to
+     * it (for example campus.landmarks next to campus.dot), where
+     * GraphSnapshot will pick them up.
+     *
+     * @param args the dot file, and optionally the number of landmarks
+     * @throws IOException if the dot file cannot be read or the tables saved
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java LandmarkHeuristic <file.dot> [landmarks]");
+            return;
+        }
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_LANDMARK_COUNT;
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend(graph).loadGraphData(args[0]);
+        long start = System.nanoTime();
+        LandmarkHeuristic<String> heuristic = build(graph, count);
+        String filename = GraphSnapshot.siblingFile(args[0], ".landmarks");
+        heuristic.save(filename);
+        System.out.printf("Saved %d landmarks for %d nodes to %s in %.1f ms%n",
+                heuristic.landmarks.length, graph.getNodeCount(), filename,
+                (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that landmark (ALT) estimates are lower bounds, that A* searches with
+ * them find the same shortest paths as Dijkstra's algorithm, and that saved
+ * landmark tables are only loaded for the graph they were computed for.
+ */
+public class LandmarkHeuristicTests {
+
+    private DijkstraGraph<String, Double> campus;
+
+    @BeforeEach
+    public void loadCampus() throws IOException {
+        campus = new DijkstraGraph<>();
+        new Backend(campus).loadGraphData("campus.dot");
+    }
+
+    /**
+     * Checks every estimate against the true cost, and every A* search
+     * against a plain Dijkstra search, for a sample of campus locations.
+     */
+    @Test
+    public void testEstimatesAreLowerBounds() {
+        LandmarkHeuristic<String> landmarks = LandmarkHeuristic.build(campus, 8);
+        assertEquals(8, landmarks.getLandmarks().size());
+        CompactGraph<String> compact = CompactGraph.freeze(campus);
+
+        List<String> locations = campus.getAllNodes();
+        for (String start : locations.subList(0, 12)) {
+            CompactPathTree<String> tree = compact.shortestPathTree(start);
+            for (String end : locations) {
+                double cost = tree.isReachable(end) ? tree.getCost(end) : Double.POSITIVE_INFINITY;
+                assertTrue(landmarks.estimate(start, end) <= cost + 1e-9,
+                        start + " to " + end + " is overestimated");
+
+                campus.setHeuristic(landmarks);
+                if (cost == Double.POSITIVE_INFINITY) {
+                    assertThrows(NoSuchElementException.class,
+                            () -> campus.shortestPathCost(start, end));
+                } else {
+                    assertEquals(cost, campus.shortestPathCost(start, end), 1e-9);
+                }
+                campus.setHeuristic(null);
+            }
+        }
+    }
+
+    /**
+     * Checks that saved tables load with the same estimates, and that they
+     * are rejected once the graph has a different edge.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("campus", ".landmarks");
+        file.deleteOnExit();
+        LandmarkHeuristic<String> built = LandmarkHeuristic.build(campus, 4);
+        built.save(file.getPath());
+
+        LandmarkHeuristic<String> loaded = LandmarkHeuristic.load(file.getPath(), campus);
+        assertEquals(built.getLandmarks(), loaded.getLandmarks());
+        List<String> locations = campus.getAllNodes();
+        for (String start : locations.subList(0, 5))
+            for (String end : locations)
+                assertEquals(built.estimate(start, end), loaded.estimate(start, end));
+
+        campus.insertEdge(locations.get(0), locations.get(1), 0.5);
+        assertThrows(IOException.class, () -> LandmarkHeuristic.load(file.getPath(), campus));
+    }
+
+    /**
+     * Checks that estimates fall back to 0.0 once the graph is modified.
+     */
+    @Test
+    public void testModifiedGraphMakesTablesStale() {
+        LandmarkHeuristic<String> landmarks = LandmarkHeuristic.build(campus, 4);
+        String start = "Memorial Union";
+        String end = "Union South";
+        assertFalse(landmarks.isStale());
+        assertTrue(landmarks.estimate(start, end) > 0.0);
+
+        campus.insertEdge(start, end, 1.0);
+        assertTrue(landmarks.isStale());
+        assertEquals(0.0, landmarks.estimate(start, end));
+        campus.setHeuristic(landmarks);
+        assertEquals(1.0, campus.shortestPathCost(start, end));
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A MeetingPoint describes the best place for a group to meet: the location
+ * that minimizes some combination of the travel times from each of several
+ * start locations, together with the travel time from each start location,
+ * so that nothing needs to be searched again to report them.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class MeetingPoint<NodeType> {
+
+    /**
+     * The ways of combining the travel times from all start locations into
+     * the one score that a meeting point minimizes.
+     */
+    public enum Criterion {
+        /** the total travel time of everyone */
+        SUM,
+        /** the travel time of whoever arrives last (minimax) */
+        MAX,
+        /** the total travel time, with each start location's time weighted */
+        WEIGHTED
+    }
+
+    private final NodeType location;
+    private final List<NodeType> starts;
+    private final List<Double> costs;
+    private final Criterion criterion;
+    private final double score;
+
+    /**
+     * Creates a meeting point.
+     *
+     * @param location the data of the node to meet at
+     * @param starts the data of the start nodes, in order
+     * @param costs the cost of the shortest path from each start node to the
+     *        meeting point, in the same order
+     * @param criterion the way the costs were combined into the score
+     * @param score the combined cost that this meeting point minimizes
+     */
+    public MeetingPoint(NodeType location, List<NodeType> starts, List<Double> costs,
+            Criterion criterion, double score) {
+        if (starts.size() != costs.size())
+            throw new IllegalArgumentException(starts.size() + " start locations must have "
+                    + starts.size() + " costs, not " + costs.size());
+        this.location = location;
+        this.starts = Collections.unmodifiableList(starts);
+        this.costs = Collections.unmodifiableList(costs);
+        this.criterion = criterion;
+        this.score = score;
+    }
+
+    /**
+     * @return the data of the node to meet at
+     */
+    public NodeType getLocation() {
+        return location;
+    }
+
+    /**
+     * @return the data of the start nodes, in order
+     */
+    public List<NodeType> getStarts() {
+        return starts;
+    }
+
+    /**
+     * @return the cost of the shortest path from each start node to the
+     *         meeting point, in the order of getStarts()
+     */
+    public List<Double> getCosts() {
+        return costs;
+    }
+
+    /**
+     * @return the way the costs were combined into the score
+     */
+    public Criterion getCriterion() {
+        return criterion;
+    }
+
+    /**
+     * @return the combined cost that this meeting point minimizes: the sum,
+     *         the largest or the weighted sum of the costs
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return location + " (" + criterion + " " + score + " from " + starts + ")";
+    }
+}
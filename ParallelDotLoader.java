@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ParallelDotLoader reads a large dot file into a CompactGraph on several
+ * threads. The file is split into chunks that each start and end at a line
+ * break, and each chunk is mapped into memory and parsed by its own
+ * DotParser on a fork-join pool. Node names are interned into one shared
+ * table while the chunks are parsed, so every name becomes a single String
+ * and id no matter how many chunks mention it. The edges of all chunks are
+ * then put into compressed sparse row form in one bulk pass (see
+ * CompactGraph.fromEdges), instead of being inserted one at a time.
+ *
+ * The result is the same as parsing the whole file in order: nodes are
+ * numbered in the order in which they first appear in the file, and when an
+ * edge is listed more than once, the last weight listed wins.
+ */
+public class ParallelDotLoader {
+
+    /**
+     * Files smaller than this are not worth splitting, see Backend.
+     */
+    public static final long MIN_PARALLEL_BYTES = 16L << 20;
+
+    // the smallest and largest chunk that one task parses
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 256L << 20;
+    // chunks per thread, so that threads which finish early can take more
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int parallelism;
+    private final String weightAttribute;
+
+    private long lineCount;
+    private long malformedLineCount;
+    private long firstMalformedLine = -1;
+
+    /**
+     * Creates a loader that parses on one thread per processor, and reads
+     * edge weights from the seconds attribute.
+     */
+    public ParallelDotLoader() {
+        this(Runtime.getRuntime().availableProcessors(), DotParser.DEFAULT_WEIGHT_ATTRIBUTE);
+    }
+
+    /**
+     * Creates a loader.
+     *
+     * @param parallelism the number of threads to parse on
+     * @param weightAttribute the name of the attribute holding edge weights
+     */
+    public ParallelDotLoader(int parallelism, String weightAttribute) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        this.parallelism = parallelism;
+        this.weightAttribute = weightAttribute;
+    }
+
+    // the nodes and edges of one chunk of the file, as it is parsed
+    private static class Chunk implements DotParser.Listener, Callable<Chunk> {
+        final FileChannel channel;
+        final long start;
+        final long end;
+        final ConcurrentHashMap<String, Integer> sharedIds;
+        final AtomicInteger sharedIdCount;
+        final String weightAttribute;
+
+        // the shared id of each name in this chunk, and the names (with their
+        // shared ids) in the order in which this chunk first mentions them
+        final Map<String, Integer> ids = new HashMap<>();
+        String[] names = new String[64];
+        int[] nameIds = new int[64];
+        int nameCount;
+
+        // the edges, between shared ids
+        int[] preds = new int[1024];
+        int[] succs = new int[1024];
+        double[] weights = new double[1024];
+        int edgeCount;
+
+        DotParser parser;
+
+        Chunk(FileChannel channel, long start, long end, ConcurrentHashMap<String, Integer> sharedIds,
+                AtomicInteger sharedIdCount, String weightAttribute) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.sharedIds = sharedIds;
+            this.sharedIdCount = sharedIdCount;
+            this.weightAttribute = weightAttribute;
+        }
+
+        @Override
+        public Chunk call() throws IOException {
+            parser = new DotParser(this, weightAttribute);
+            parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            return this;
+        }
+
+        // the shared id of a name, which the parser always passes as the
+        // same String instance within this chunk
+        private int idOf(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = sharedIds.computeIfAbsent(name, key -> sharedIdCount.getAndIncrement());
+                ids.put(name, id);
+                if (nameCount == names.length) {
+                    names = Arrays.copyOf(names, nameCount * 2);
+                    nameIds = Arrays.copyOf(nameIds, nameCount * 2);
+                }
+                names[nameCount] = name;
+                nameIds[nameCount] = id;
+                nameCount++;
+            }
+            return id;
+        }
+
+        @Override
+        public void node(String name) {
+            idOf(name);
+        }
+
+        @Override
+        public void edge(String source, String target, double weight) {
+            if (edgeCount == preds.length) {
+                preds = Arrays.copyOf(preds, edgeCount * 2);
+                succs = Arrays.copyOf(succs, edgeCount * 2);
+                weights = Arrays.copyOf(weights, edgeCount * 2);
+            }
+            preds[edgeCount] = idOf(source);
+            succs[edgeCount] = idOf(target);
+            weights[edgeCount] = weight;
+            edgeCount++;
+        }
+    }
+
+    /**
+     * Reads a dot file into a new compact graph.
+     *
+     * @param filename the path of the dot file to read
+     * @return the graph with the nodes and edges of that file
+     * @throws IOException if the file cannot be read
+     */
+    public CompactGraph<String> load(String filename) throws IOException {
+        lineCount = 0;
+        malformedLineCount = 0;
+        firstMalformedLine = -1;
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES,
+                    size / ((long) parallelism * CHUNKS_PER_THREAD) + 1));
+
+            ConcurrentHashMap<String, Integer> sharedIds = new ConcurrentHashMap<>();
+            AtomicInteger sharedIdCount = new AtomicInteger();
+            List<Chunk> chunks = new ArrayList<>();
+            for (long start = 0; start < size; ) {
+                long end = lineBreakAfter(channel, Math.min(size, start + chunkBytes));
+                chunks.add(new Chunk(channel, start, end, sharedIds, sharedIdCount,
+                        weightAttribute));
+                start = end;
+            }
+            parseAll(chunks);
+
+            // number the nodes in the order they first appear in the file
+            int[] finalIds = new int[sharedIdCount.get()];
+            Arrays.fill(finalIds, -1);
+            Object[] data = new Object[finalIds.length];
+            int n = 0;
+            int m = 0;
+            for (Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.nameCount; i++) {
+                    if (finalIds[chunk.nameIds[i]] < 0) {
+                        finalIds[chunk.nameIds[i]] = n;
+                        data[n++] = chunk.names[i];
+                    }
+                }
+                m += chunk.edgeCount;
+                if (chunk.parser.getFirstMalformedLine() >= 0 && firstMalformedLine < 0)
+                    firstMalformedLine = lineCount + chunk.parser.getFirstMalformedLine();
+                lineCount += chunk.parser.getLineCount();
+                malformedLineCount += chunk.parser.getMalformedLineCount();
+            }
+
+            // the edges of all chunks, in file order, between the final ids
+            int[] preds = new int[m];
+            int[] succs = new int[m];
+            double[] weights = new double[m];
+            int e = 0;
+            for (Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.edgeCount; i++, e++) {
+                    preds[e] = finalIds[chunk.preds[i]];
+                    succs[e] = finalIds[chunk.succs[i]];
+                    weights[e] = chunk.weights[i];
+                }
+            }
+            return CompactGraph.fromEdges(data, preds, succs, weights, m);
+        }
+    }
+
+    // parses every chunk on a pool with parallelism threads
+    private void parseAll(List<Chunk> chunks) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Chunk> parsed : pool.invokeAll(chunks))
+                parsed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading a graph", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Could not load a graph", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // the position just after the first line break at or after position
+    // (or the end of the file), so that a chunk ends with a whole line
+    private static long lineBreakAfter(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long size = channel.size();
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            for (int i = 0; i < read; i++)
+                if (window.get(i) == '\n')
+                    return position + i + 1;
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of lines read by the last load
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the number of lines that the last load could not parse
+     */
+    public long getMalformedLineCount() {
+        return malformedLineCount;
+    }
+
+    /**
+     * @return the line number (starting at 1) of the first line that the last
+     *         load could not parse, or -1 if every line was parsed
+     */
+    public long getFirstMalformedLine() {
+        return firstMalformedLine;
+    }
+}
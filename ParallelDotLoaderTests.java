@@ -0,0 +1,67 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a ParallelDotLoader reads a file that is split into several
+ * chunks into the same graph as parsing it in order does.
+ */
+public class ParallelDotLoaderTests {
+
+    /**
+     * Checks the nodes, edges, duplicate edges and malformed lines
+     * of a few MB of random edges, against a sequentially loaded graph.
+     */
+    @Test
+    public void testChunksMatchSequentialLoad() throws IOException {
+        File file = File.createTempFile("random", ".dot");
+        file.deleteOnExit();
+        Random random = new Random(400);
+        try (Writer out = new FileWriter(file)) {
+            out.write("digraph random {\n");
+            for (int i = 0; i < 100000; i++) {
+                if (i % 25000 == 7)
+                    out.write("\t\"broken\" -> \"edge\";\n");
+                if (i % 1000 == 0)
+                    out.write("\t\"lonely " + i + "\";\n");
+                // duplicate edges are likely, and the last weight listed wins
+                out.write("\t\"node " + random.nextInt(3000) + "\" -> \"node "
+                        + random.nextInt(3000) + "\" [seconds=" + random.nextInt(10000) / 100.0
+                        + "];\n");
+            }
+            out.write("}\n");
+        }
+        assertTrue(file.length() > 4 * (1 << 20)); // several chunks on 4 threads
+
+        DijkstraGraph<String, Double> sequential = new DijkstraGraph<>();
+        Backend backend = new Backend(sequential);
+        backend.loadGraphData(file.getPath());
+        ParallelDotLoader loader = new ParallelDotLoader(4, DotParser.DEFAULT_WEIGHT_ATTRIBUTE);
+        CompactGraph<String> parallel = loader.load(file.getPath());
+
+        List<String> nodes = sequential.getAllNodes();
+        assertEquals(new HashSet<>(nodes), new HashSet<>(parallel.getAllNodes()));
+        // nodes are numbered in file order, however the file is split
+        CompactGraph<String> oneChunk =
+                new ParallelDotLoader(1, DotParser.DEFAULT_WEIGHT_ATTRIBUTE).load(file.getPath());
+        assertEquals(oneChunk.getAllNodes(), parallel.getAllNodes());
+        assertEquals(sequential.getEdgeCount(), parallel.getEdgeCount());
+        for (String pred : nodes) {
+            for (String succ : sequential.getAllNodes().subList(0, 50)) {
+                assertEquals(sequential.containsEdge(pred, succ), parallel.containsEdge(pred, succ));
+                if (sequential.containsEdge(pred, succ))
+                    assertEquals(sequential.getEdge(pred, succ), parallel.getEdge(pred, succ));
+            }
+        }
+        assertEquals(backend.getMalformedLineCount(), loader.getMalformedLineCount());
+        assertEquals(4, loader.getMalformedLineCount());
+        assertEquals(10, loader.getFirstMalformedLine());
+        assertEquals(100000 + 100 + 4 + 2, loader.getLineCount());
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A PathResult describes one path that was found by a single shortest path
+ * search: the data of the nodes along that path, the weight of each edge (or
+ * segment) between two consecutive nodes, and the total cost of the path.
+ * A result with no nodes represents a path that does not exist.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class PathResult<NodeType> {
+
+    private final List<NodeType> nodes;
+    private final List<Double> segmentCosts;
+    private final double totalCost;
+
+    /**
+     * Creates a path result.
+     *
+     * @param nodes the data of the nodes along the path, in order
+     * @param segmentCosts the weight of the edge leaving each node along the
+     *        path towards the next one (one fewer than the number of nodes)
+     * @param totalCost the total cost of the path
+     */
+    public PathResult(List<NodeType> nodes, List<Double> segmentCosts, double totalCost) {
+        if (!nodes.isEmpty() && segmentCosts.size() != nodes.size() - 1)
+            throw new IllegalArgumentException("A path with " + nodes.size()
+                    + " nodes must have " + (nodes.size() - 1) + " segments");
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.segmentCosts = Collections.unmodifiableList(segmentCosts);
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * Creates a result that represents a path that does not exist.
+     *
+     * @return a result without any nodes
+     */
+    public static <NodeType> PathResult<NodeType> empty() {
+        return new PathResult<>(Collections.emptyList(), Collections.emptyList(),
+                Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return true if this result has no nodes, because no path was found
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * @return the data of the nodes along this path, from start to end
+     */
+    public List<NodeType> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the weight of each edge along this path, from start to end
+     */
+    public List<Double> getSegmentCosts() {
+        return segmentCosts;
+    }
+
+    /**
+     * Returns the cost from the start of this path to each of its nodes: the
+     * first value is 0.0 for the start node itself, and the last value is the
+     * total cost of the path.
+     *
+     * @return the cumulative cost at each node along this path
+     */
+    public List<Double> getCumulativeCosts() {
+        List<Double> cumulative = new ArrayList<>(nodes.size());
+        if (nodes.isEmpty())
+            return cumulative;
+        double sum = 0.0;
+        cumulative.add(sum);
+        for (double segment : segmentCosts) {
+            sum += segment;
+            cumulative.add(sum);
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return the total cost of this path, or infinity for an empty result
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    @Override
+    public String toString() {
+        return nodes + " (cost " + totalCost + ")";
+    }
+}
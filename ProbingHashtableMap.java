@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This ProbingHashtableMap class is a MapADT that stores its keys and values
+ * directly in flat arrays, instead of in a linked list of pairs per bucket.
+ * Collisions are resolved by linear probing with the Robin Hood rule: while a
+ * key is inserted, it takes over any slot whose current key sits closer to its
+ * own home slot, which keeps every probe sequence short. Removing a key shifts
+ * the keys after it back by one slot (instead of leaving a tombstone behind),
+ * so lookups never have to skip over deleted entries.
+ *
+ * The capacity is always a power of two, so a key's home slot is found with a
+ * bit mask, after its hashCode() has been spread so that the high bits of the
+ * hash also affect the slot.
+ */
+public class ProbingHashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+    // the table grows once more than this fraction of its slots are used
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    // keys, values and spread hashes by slot, a null key marks an empty slot
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param capacity the number of slots to start with, which is rounded up
+     *        to the next power of two
+     */
+    public ProbingHashtableMap(int capacity) {
+        allocate(Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1));
+    }
+
+    /**
+     * Creates an empty map with 64 slots.
+     */
+    public ProbingHashtableMap() {
+        this(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        size = 0;
+    }
+
+    // mixes the high bits of a hashCode into the low bits that pick a slot
+    private static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // how far the entry in slot is from the home slot of its hash
+    private int probeDistance(int slot) {
+        return (slot - (hashes[slot] & (keys.length - 1))) & (keys.length - 1);
+    }
+
+    // the slot holding key, or -1 when key is not stored in this map
+    private int find(Object key) {
+        int mask = keys.length - 1;
+        int hash = spread(key);
+        int slot = hash & mask;
+        for (int distance = 0; keys[slot] != null; distance++) {
+            int stored = hashes[slot];
+            if (stored == hash && keys[slot].equals(key))
+                return slot;
+            // under the Robin Hood rule, key would have displaced this entry
+            if (((slot - (stored & mask)) & mask) < distance)
+                return -1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a new key,value pair/mapping to this collection.
+     * @param key the key of the key,value pair
+     * @param value the value that key maps to
+     * @throws IllegalArgumentException if key already maps to a value
+     * @throws NullPointerException if key is null
+     */
+    @Override
+    public void put(KeyType key, ValueType value) throws IllegalArgumentException {
+        if (key == null) {
+            throw new NullPointerException("Key cannot be null");
+        }
+        if (find(key) >= 0) {
+            throw new IllegalArgumentException("Key already exists");
+        }
+        if (size + 1 > keys.length * MAX_LOAD_FACTOR) {
+            resize(keys.length * 2);
+        }
+        insert(key, value, spread(key));
+        size++;
+    }
+
+    // places an entry that is known not to be stored yet
+    private void insert(Object key, Object value, int hash) {
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        int distance = 0;
+        while (keys[slot] != null) {
+            int existing = probeDistance(slot);
+            if (existing < distance) {
+                // take this slot, and carry on inserting its old entry
+                Object displacedKey = keys[slot];
+                Object displacedValue = values[slot];
+                int displacedHash = hashes[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                hashes[slot] = hash;
+                key = displacedKey;
+                value = displacedValue;
+                hash = displacedHash;
+                distance = existing;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * Moves every entry into new arrays with the provided capacity, reusing
+     * the stored hashes instead of calling hashCode() or equals() again.
+     */
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldSize = size;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldValues[i], oldHashes[i]);
+            }
+        }
+        size = oldSize;
+    }
+
+    /**
+     * Checks whether a key maps to a value in this collection.
+     * @param key the key to check
+     * @return true if the key maps to a value, and false is the
+     *         key doesn't map to a value
+     */
+    @Override
+    public boolean containsKey(KeyType key) {
+        return key != null && find(key) >= 0;
+    }
+
+    /**
+     * Retrieves the specific value that a key maps to.
+     * @param key the key to look up
+     * @return the value that key maps to
+     * @throws NoSuchElementException when key is not stored in this
+     *         collection
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType get(KeyType key) throws NoSuchElementException {
+        int slot = find(key);
+        if (slot < 0) {
+            throw new NoSuchElementException("Key not found");
+        }
+        return (ValueType) values[slot];
+    }
+
+    /**
+     * Remove the mapping for a key from this collection.
+     * @param key the key whose mapping to remove
+     * @return the value that the removed key mapped to
+     * @throws NoSuchElementException when key is not stored in this
+     *         collection
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType remove(KeyType key) throws NoSuchElementException {
+        int slot = find(key);
+        if (slot < 0) {
+            throw new NoSuchElementException("Key not found");
+        }
+        ValueType value = (ValueType) values[slot];
+
+        // shift the following entries back until one is already at home
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (keys[next] != null && probeDistance(next) > 0) {
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            hashes[slot] = hashes[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes all key,value pairs from this collection.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of keys stored in this collection.
+     * @return the number of keys stored in this collection
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves this collection's capacity.
+     * @return the size of the underlying arrays for this collection
+     */
+    @Override
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Retrieves this collection's keys.
+     * @return a list of keys in the underlying array for this collection
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<KeyType> getKeys() {
+        List<KeyType> list = new ArrayList<>(size);
+        for (Object key : keys) {
+            if (key != null) {
+                list.add((KeyType) key);
+            }
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,103 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the open addressing ProbingHashtableMap.
+ */
+public class ProbingHashtableMapTests {
+
+    // a key whose hashCode can be chosen, to force collisions
+    private static class Key {
+        private final String name;
+        private final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).name.equals(name);
+        }
+    }
+
+    /**
+     * Tests basic put, get, duplicate and null handling
+     */
+    @Test
+    public void testPutAndGet() {
+        ProbingHashtableMap<String, Integer> map = new ProbingHashtableMap<>();
+        map.put("test", 42);
+        assertEquals(42, map.get("test"));
+        assertEquals(1, map.getSize());
+        assertThrows(IllegalArgumentException.class, () -> map.put("test", 7));
+        assertThrows(NullPointerException.class, () -> map.put(null, 7));
+        assertThrows(NoSuchElementException.class, () -> map.get("missing"));
+        assertFalse(map.containsKey(null));
+    }
+
+    /**
+     * Tests that the capacity is a power of two that doubles when the map
+     * gets too full, without losing any keys
+     */
+    @Test
+    public void testResize() {
+        ProbingHashtableMap<Integer, Integer> map = new ProbingHashtableMap<>(6);
+        assertEquals(8, map.getCapacity());
+        for (int i = 0; i < 6; i++)
+            map.put(i, i * 10);
+        assertEquals(8, map.getCapacity());
+        map.put(6, 60);
+        assertEquals(16, map.getCapacity());
+        for (int i = 0; i < 1000; i++)
+            if (!map.containsKey(i))
+                map.put(i, i * 10);
+        assertEquals(1000, map.getSize());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i * 10, map.get(i));
+        assertEquals(1000, map.getKeys().size());
+    }
+
+    /**
+     * Tests that removing keys from the middle of a run of colliding keys
+     * leaves the other keys reachable, including Integer.MIN_VALUE hashes
+     */
+    @Test
+    public void testRemoveWithCollisions() {
+        ProbingHashtableMap<Key, Integer> map = new ProbingHashtableMap<>(64);
+        Key[] keys = new Key[10];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key("k" + i, i < 5 ? Integer.MIN_VALUE : 7);
+            map.put(keys[i], i);
+        }
+        assertEquals(2, map.remove(keys[2]));
+        assertEquals(6, map.remove(keys[6]));
+        assertFalse(map.containsKey(keys[2]));
+        for (int i = 0; i < keys.length; i++)
+            if (i != 2 && i != 6)
+                assertEquals(i, map.get(keys[i]));
+        assertEquals(8, map.getSize());
+        assertThrows(NoSuchElementException.class, () -> map.remove(keys[2]));
+    }
+
+    /**
+     * Tests clear and getKeys
+     */
+    @Test
+    public void testClearAndKeys() {
+        ProbingHashtableMap<String, Integer> map = new ProbingHashtableMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+        assertTrue(map.getKeys().containsAll(List.of("one", "two")));
+        map.clear();
+        assertEquals(0, map.getSize());
+        assertTrue(map.getKeys().isEmpty());
+        assertThrows(NoSuchElementException.class, () -> map.get("one"));
+    }
+}
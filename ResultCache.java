@@ -0,0 +1,418 @@
+import java.util.function.Consumer;
+
+/**
+ * A ResultCache keeps a bounded number of computed results, so that results
+ * which are requested again can be returned without computing them again.
+ * Once the cache is full, storing another result evicts one of the stored
+ * results, which is picked by the cache's eviction policy:
+ *
+ * LRU evicts the result that was used least recently.
+ *
+ * TINY_LFU (in the style of W-TinyLFU) keeps new results in a small LRU
+ * window first. A result that leaves that window only replaces the least
+ * recently used result of the main part of the cache when its key was
+ * requested more often, which is estimated by a small count-min sketch whose
+ * counts are halved every now and then so that old popularity fades away.
+ * This keeps keys that are requested once from pushing popular keys out.
+ *
+ * Every result is stored together with a version, such as the modification
+ * count of a graph, and a lookup with a newer version discards all results,
+ * so results that were computed from an older graph are never returned.
+ *
+ * A cache can be shared between threads. A large cache is split into
+ * segments by the hash of each key, and each segment is a small cache of its
+ * own, with its own lock, window, main list and frequency sketch. So threads
+ * that look up keys in different segments never wait for each other, and the
+ * results that are evicted are still nearly the ones that a single segment
+ * would evict.
+ *
+ * A result that holds resources of its own can be given a removal listener,
+ * which is called with every result that the cache lets go of: results that
+ * are evicted, replaced, discarded, or never stored in the first place.
+ *
+ * @param KeyType the type of the keys that results are looked up by
+ * @param ValueType the type of the results
+ */
+public class ResultCache<KeyType, ValueType> {
+
+    /**
+     * The ways in which a full cache can pick the result to evict.
+     */
+    public enum Policy { LRU, TINY_LFU }
+
+    // the fraction of a TINY_LFU cache that is used for its window
+    private static final double WINDOW_FRACTION = 0.01;
+    // the largest count that the frequency sketch keeps per counter
+    private static final int MAX_FREQUENCY = 15;
+    // one odd multiplier per row of the frequency sketch
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    // the smallest segment that a cache is split into, so that each segment
+    // still has room for a window and a useful frequency sketch
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+    // the most segments, a power of two, enough that threads rarely collide
+    private static final int MAX_SEGMENTS =
+            Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors());
+
+    // an entry is linked into the window or into the main list
+    private static class Entry<KeyType, ValueType> {
+        KeyType key;
+        ValueType value;
+        boolean inWindow;
+        Entry<KeyType, ValueType> previous;
+        Entry<KeyType, ValueType> next;
+    }
+
+    private final int capacity;
+    private final Policy policy;
+    // a power of two number of segments, picked by the hash of each key
+    private final Segment<KeyType, ValueType>[] segments;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the largest number of results to keep, where 0 turns
+     *        caching off
+     * @param policy the way to pick the result to evict once the cache is full
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public ResultCache(int capacity, Policy policy) {
+        this(capacity, policy, null);
+    }
+
+    /**
+     * Creates an empty cache that tells a listener about every result that
+     * it lets go of, such as to release what the result holds.
+     *
+     * @param capacity the largest number of results to keep, where 0 turns
+     *        caching off
+     * @param policy the way to pick the result to evict once the cache is full
+     * @param removalListener called with every result that is evicted,
+     *        replaced, discarded or not stored at all, or null
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    @SuppressWarnings("unchecked")
+    public ResultCache(int capacity, Policy policy, Consumer<? super ValueType> removalListener) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        this.capacity = capacity;
+        this.policy = policy;
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY));
+        count = Integer.highestOneBit(count);
+        // an array of a generic type can only be created raw
+        this.segments = (Segment<KeyType, ValueType>[]) new Segment<?, ?>[count];
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment<>(capacity / count + (i < capacity % count ? 1 : 0),
+                    policy, removalListener);
+    }
+
+    // the segment that stores the result for key
+    private Segment<KeyType, ValueType> segmentFor(KeyType key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Looks up the result for a key. A version that is newer than the version
+     * of the stored results discards all of those results first.
+     *
+     * @param key the key to look up
+     * @param version the current version of whatever results are computed from
+     * @return the stored result, or null if no result is stored for key
+     */
+    public ValueType get(KeyType key, long version) {
+        return segmentFor(key).get(key, version);
+    }
+
+    /**
+     * Stores the result for a key, replacing any result that is already
+     * stored for it. A result with an older version than the stored results
+     * is not stored at all, since it may already be out of date.
+     *
+     * @param key the key to store the result for
+     * @param value the result to store
+     * @param version the version that the result was computed from
+     */
+    public void put(KeyType key, ValueType value, long version) {
+        segmentFor(key).put(key, value, version);
+    }
+
+    /**
+     * Discards all stored results, without counting them as evictions.
+     */
+    public void clear() {
+        for (Segment<KeyType, ValueType> segment : segments)
+            segment.clear();
+    }
+
+    /**
+     * @return the number of results that are currently stored
+     */
+    public int getSize() {
+        int size = 0;
+        for (Segment<KeyType, ValueType> segment : segments)
+            size += segment.getSize();
+        return size;
+    }
+
+    /**
+     * @return the largest number of results that this cache keeps
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the way this cache picks the result to evict
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of lookups that found a stored result
+     */
+    public long getHitCount() {
+        long hits = 0;
+        for (Segment<KeyType, ValueType> segment : segments)
+            hits += segment.getHitCount();
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that did not find a stored result
+     */
+    public long getMissCount() {
+        long misses = 0;
+        for (Segment<KeyType, ValueType> segment : segments)
+            misses += segment.getMissCount();
+        return misses;
+    }
+
+    /**
+     * @return the number of results that were evicted to make room for others
+     */
+    public long getEvictionCount() {
+        long evictions = 0;
+        for (Segment<KeyType, ValueType> segment : segments)
+            evictions += segment.getEvictionCount();
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return policy + " cache: " + getSize() + "/" + capacity + " results, " + getHitCount()
+                + " hits, " + getMissCount() + " misses, " + getEvictionCount() + " evictions";
+    }
+
+    /**
+     * One segment of a cache, which is a complete cache for the keys whose
+     * hash picks it. All of its methods are synchronized.
+     */
+    private static class Segment<KeyType, ValueType> {
+        private final int capacity;
+        private final int windowCapacity;
+        private final MapADT<KeyType, Entry<KeyType, ValueType>> entries;
+        // called with every result that the cache lets go of, or null
+        private final Consumer<? super ValueType> removalListener;
+
+        // circular lists with a sentinel, most recently used entry first
+        private final Entry<KeyType, ValueType> window = sentinel();
+        private final Entry<KeyType, ValueType> main = sentinel();
+        private int windowSize;
+        private int mainSize;
+
+        // count-min sketch of how often each key was requested (TINY_LFU only)
+        private final byte[] frequencies;
+        private final int sampleSize;
+        private int samples;
+
+        private long version;
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        Segment(int capacity, Policy policy, Consumer<? super ValueType> removalListener) {
+            this.capacity = capacity;
+            this.removalListener = removalListener;
+            this.entries = new ProbingHashtableMap<>(Math.max(2, capacity * 2));
+            if (policy == Policy.TINY_LFU && capacity > 1) {
+                windowCapacity = Math.max(1, (int) (capacity * WINDOW_FRACTION));
+                frequencies = new byte[Integer.highestOneBit(capacity - 1) << 5];
+                sampleSize = 10 * capacity;
+            } else {
+                windowCapacity = 0;
+                frequencies = null;
+                sampleSize = 0;
+            }
+        }
+
+        private static <KeyType, ValueType> Entry<KeyType, ValueType> sentinel() {
+            Entry<KeyType, ValueType> sentinel = new Entry<>();
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        synchronized ValueType get(KeyType key, long version) {
+            checkVersion(version);
+            recordAccess(key);
+            Entry<KeyType, ValueType> entry = entries.containsKey(key) ? entries.get(key) : null;
+            if (entry == null || this.version != version) {
+                misses++;
+                return null;
+            }
+            hits++;
+            unlink(entry);
+            linkFirst(entry.inWindow ? window : main, entry);
+            return entry.value;
+        }
+
+        synchronized void put(KeyType key, ValueType value, long version) {
+            checkVersion(version);
+            if (capacity == 0 || this.version != version) {
+                removed(value);
+                return;
+            }
+            if (entries.containsKey(key)) {
+                Entry<KeyType, ValueType> entry = entries.get(key);
+                if (entry.value != value)
+                    removed(entry.value);
+                entry.value = value;
+                unlink(entry);
+                linkFirst(entry.inWindow ? window : main, entry);
+                return;
+            }
+            Entry<KeyType, ValueType> entry = new Entry<>();
+            entry.key = key;
+            entry.value = value;
+            entries.put(key, entry);
+            if (windowCapacity == 0) {
+                linkFirst(main, entry);
+                mainSize++;
+                if (mainSize > capacity)
+                    evict(main.previous);
+                return;
+            }
+            entry.inWindow = true;
+            linkFirst(window, entry);
+            windowSize++;
+            if (windowSize <= windowCapacity)
+                return;
+
+            // the window overflows, so its oldest entry competes for the main list
+            Entry<KeyType, ValueType> candidate = window.previous;
+            unlink(candidate);
+            windowSize--;
+            candidate.inWindow = false;
+            linkFirst(main, candidate);
+            mainSize++;
+            if (mainSize <= capacity - windowCapacity)
+                return;
+            Entry<KeyType, ValueType> victim = main.previous;
+            if (frequency(candidate.key) > frequency(victim.key))
+                evict(victim);
+            else
+                evict(candidate);
+        }
+
+        synchronized void clear() {
+            if (removalListener != null) {
+                for (Entry<KeyType, ValueType> entry = window.next; entry != window; entry = entry.next)
+                    removalListener.accept(entry.value);
+                for (Entry<KeyType, ValueType> entry = main.next; entry != main; entry = entry.next)
+                    removalListener.accept(entry.value);
+            }
+            entries.clear();
+            window.previous = window.next = window;
+            main.previous = main.next = main;
+            windowSize = 0;
+            mainSize = 0;
+        }
+
+        // discards the stored results when they were computed from an older version
+        private void checkVersion(long version) {
+            if (version > this.version) {
+                clear();
+                this.version = version;
+            }
+        }
+
+        private void evict(Entry<KeyType, ValueType> entry) {
+            unlink(entry);
+            if (entry.inWindow)
+                windowSize--;
+            else
+                mainSize--;
+            entries.remove(entry.key);
+            evictions++;
+            removed(entry.value);
+        }
+
+        private void removed(ValueType value) {
+            if (removalListener != null)
+                removalListener.accept(value);
+        }
+
+        private void linkFirst(Entry<KeyType, ValueType> list, Entry<KeyType, ValueType> entry) {
+            entry.previous = list;
+            entry.next = list.next;
+            list.next.previous = entry;
+            list.next = entry;
+        }
+
+        private void unlink(Entry<KeyType, ValueType> entry) {
+            entry.previous.next = entry.next;
+            entry.next.previous = entry.previous;
+        }
+
+        // the four counters of the sketch that belong to a key, one per quarter
+        private int counter(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            int quarter = frequencies.length >>> 2;
+            return row * quarter + (h & (quarter - 1));
+        }
+
+        private void recordAccess(KeyType key) {
+            if (frequencies == null)
+                return;
+            int hash = key.hashCode();
+            for (int row = 0; row < 4; row++) {
+                int i = counter(hash, row);
+                if (frequencies[i] < MAX_FREQUENCY)
+                    frequencies[i]++;
+            }
+            if (++samples >= sampleSize) {
+                // halve every count, so keys that are no longer requested fade away
+                for (int i = 0; i < frequencies.length; i++)
+                    frequencies[i] >>= 1;
+                samples /= 2;
+            }
+        }
+
+        // the estimated number of recent requests for key
+        private int frequency(KeyType key) {
+            int hash = key.hashCode();
+            int estimate = MAX_FREQUENCY;
+            for (int row = 0; row < 4; row++)
+                estimate = Math.min(estimate, frequencies[counter(hash, row)]);
+            return estimate;
+        }
+
+        synchronized int getSize() {
+            return entries.getSize();
+        }
+
+        synchronized long getHitCount() {
+            return hits;
+        }
+
+        synchronized long getMissCount() {
+            return misses;
+        }
+
+        synchronized long getEvictionCount() {
+            return evictions;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests which results each eviction policy of a ResultCache keeps, that
+ * the shortest paths cached by the Backend are discarded whenever the graph
+ * is modified, and that threads can share a cache.
+ */
+public class ResultCacheTests {
+
+    /**
+     * Checks that an LRU cache evicts the least recently used result, and
+     * counts its hits, misses and evictions.
+     */
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ResultCache<String, Integer> cache = new ResultCache<>(3, ResultCache.Policy.LRU);
+        cache.put("a", 1, 0);
+        cache.put("b", 2, 0);
+        cache.put("c", 3, 0);
+        assertEquals(1, cache.get("a", 0));
+        cache.put("d", 4, 0);
+
+        assertEquals(3, cache.getSize());
+        assertNull(cache.get("b", 0));
+        assertEquals(1, cache.get("a", 0));
+        assertEquals(3, cache.get("c", 0));
+        assertEquals(4, cache.get("d", 0));
+        assertEquals(4, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    /**
+     * Checks that a TINY_LFU cache keeps popular results while a scan over
+     * many keys that are requested only once passes through it, where an LRU
+     * cache of the same size loses all of them.
+     */
+    @Test
+    public void testPopularResultsSurviveScan() {
+        for (ResultCache.Policy policy : ResultCache.Policy.values()) {
+            ResultCache<Integer, Integer> cache = new ResultCache<>(100, policy);
+            for (int round = 0; round < 5; round++)
+                for (int key = 0; key < 50; key++)
+                    if (cache.get(key, 0) == null)
+                        cache.put(key, key, 0);
+            for (int key = 1000; key < 1500; key++)
+                if (cache.get(key, 0) == null)
+                    cache.put(key, key, 0);
+
+            int popular = 0;
+            for (int key = 0; key < 50; key++)
+                if (cache.get(key, 0) != null)
+                    popular++;
+            assertTrue(cache.getSize() <= 100);
+            if (policy == ResultCache.Policy.TINY_LFU)
+                assertEquals(50, popular, cache.toString());
+            else
+                assertEquals(0, popular, cache.toString());
+        }
+    }
+
+    /**
+     * Checks that a newer version discards all results, that results of an
+     * older version are not stored, and that the Backend caches paths until
+     * the graph is modified.
+     */
+    @Test
+    public void testModificationsInvalidateResults() throws IOException {
+        ResultCache<String, Integer> cache = new ResultCache<>(4, ResultCache.Policy.LRU);
+        cache.put("a", 1, 5);
+        assertEquals(1, cache.get("a", 5));
+        assertNull(cache.get("a", 6));
+        cache.put("b", 2, 5);
+        assertNull(cache.get("b", 6));
+        assertEquals(0, cache.getSize());
+
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        Backend backend = new Backend(campus);
+        backend.loadGraphData("campus.dot");
+        ResultCache<List<String>, PathResult<String>> paths = backend.getPathCache();
+        String start = "Memorial Union";
+        String end = "Union South";
+        PathResult<String> first = backend.findShortestPath(start, end);
+        assertSame(first, backend.findShortestPath(start, end));
+        assertEquals(first.getNodes(), backend.findLocationsOnShortestPath(start, end));
+        assertEquals(2, paths.getHitCount());
+
+        campus.insertEdge(start, end, 1.0);
+        assertEquals(List.of(start, end), backend.findLocationsOnShortestPath(start, end));
+        campus.removeEdge(start, end);
+        assertEquals(first.getNodes(), backend.findLocationsOnShortestPath(start, end));
+        campus.removeNode(end);
+        assertTrue(backend.findShortestPath(start, end).isEmpty());
+        campus.insertNode(end);
+        assertTrue(backend.findShortestPath(start, end).isEmpty());
+        backend.loadGraphData("campus.dot");
+        assertEquals(first.getNodes(), backend.findLocationsOnShortestPath(start, end));
+        assertEquals(2, paths.getHitCount());
+    }
+
+    /**
+     * Checks that threads which share a cache, and a Backend with its path
+     * cache, only ever get the results that were stored for their keys, and
+     * that every lookup is counted once.
+     */
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        int threadCount = 8;
+        int lookupsPerThread = 20000;
+        for (ResultCache.Policy policy : ResultCache.Policy.values()) {
+            ResultCache<Integer, Integer> cache = new ResultCache<>(4096, policy);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                Random random = new Random(t);
+                tasks.add(() -> {
+                    for (int i = 0; i < lookupsPerThread; i++) {
+                        int key = random.nextInt(8192);
+                        Integer value = cache.get(key, 0);
+                        if (value == null)
+                            cache.put(key, key * 2, 0);
+                        else
+                            assertEquals(key * 2, value);
+                    }
+                    return null;
+                });
+            }
+            runAll(tasks);
+            assertEquals((long) threadCount * lookupsPerThread,
+                    cache.getHitCount() + cache.getMissCount(), cache.toString());
+            assertTrue(cache.getSize() <= 4096, cache.toString());
+            assertTrue(cache.getHitCount() > 0, cache.toString());
+        }
+
+        Backend backend = new Backend(new DijkstraGraph<>());
+        backend.loadGraphData("campus.dot");
+        Backend uncached = new Backend(new DijkstraGraph<>(), 0, ResultCache.Policy.LRU);
+        uncached.loadGraphData("campus.dot");
+        List<String> locations = backend.getListOfAllLocations();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Random random = new Random(100 + t);
+            tasks.add(() -> {
+                for (int i = 0; i < 200; i++) {
+                    String start = locations.get(random.nextInt(20));
+                    String end = locations.get(random.nextInt(20));
+                    assertEquals(uncached.findShortestPath(start, end).getNodes(),
+                            backend.findShortestPath(start, end).getNodes());
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+        assertTrue(backend.getPathCache().getHitCount() > 0);
+    }
+
+    // runs the tasks on a thread each, and rethrows the first failure
+    private static void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> done : pool.invokeAll(tasks)) {
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error)
+                        throw (Error) e.getCause();
+                    throw e;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
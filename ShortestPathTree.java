@@ -0,0 +1,50 @@
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A ShortestPathTree holds the result of one single source search: the
+ * shortest paths from a start node to every node that can be reached from
+ * it. Any number of destinations can be looked up in the same tree without
+ * searching the graph again.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public interface ShortestPathTree<NodeType> {
+
+    /**
+     * @return the data item in the node that every path starts from
+     */
+    public NodeType getStart();
+
+    /**
+     * Checks whether there is a directed path from the start node to end.
+     *
+     * @param end the data item in the destination node
+     * @return true if end is in the graph and can be reached from the start
+     *         node, or false otherwise
+     */
+    public boolean isReachable(NodeType end);
+
+    /**
+     * Returns the cost of the shortest path from the start node to end.
+     *
+     * @param end the data item in the destination node
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException if end is not in the graph, or if there
+     *         is no directed path from the start node to end
+     */
+    public double getCost(NodeType end);
+
+    /**
+     * Returns the list of data values from nodes along the shortest path from
+     * the start node through end, starting with the start value and ending
+     * with the end value.
+     *
+     * @param end the data item in the destination node
+     * @return list of data items from nodes along this shortest path
+     * @throws NoSuchElementException if end is not in the graph, or if there
+     *         is no directed path from the start node to end
+     */
+    public List<NodeType> getPath(NodeType end);
+
+}
@@ -5,12 +5,36 @@ import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 /**
@@ -26,12 +50,63 @@ import java.util.stream.Stream;
  *     compile WebApp in that location
  *     there is no need to run your sever, the provided index.cgi handles this 
  * Then visit through browser via https://cs400-web.cs.wisc.edu/CS_LOGIN/
+ *
+ * index.cgi starts a new JVM (which loads the whole graph) for every request,
+ * unless a daemon is running in the same directory: java WebApp --daemon
+ * keeps the graph loaded and answers the queries that index.cgi forwards to
+ * it over the Unix domain socket webapp.sock, so each request only takes a
+ * few milliseconds. When no daemon is listening, index.cgi falls back to
+ * starting a JVM for the request, just like before.
+ *
+ * Requests are handled on a fixed pool of threads, one per processor, which
+ * all read the same graph snapshot. These system properties configure the
+ * server, for example: java -Dwebapp.executor=virtual WebApp 8080
+ *     webapp.executor  "pool" (the default) for a fixed pool of platform
+ *                      threads, "virtual" for a new virtual thread per
+ *                      request (Java 21 or newer, otherwise the pool is
+ *                      used), or "dispatcher" to handle every request on the
+ *                      server's single dispatcher thread
+ *     webapp.threads   the number of threads in the pool
+ *     webapp.backlog   the number of connections that may wait to be accepted
+ *     webapp.verbose   true to print the URL and arguments of every request,
+ *                      which makes request threads take turns at printing
  */
 public class WebApp {
+    // the dot file that the campus graph is loaded from
+    private static final String GRAPH_FILE = "./campus.dot";
+
+    // the graph snapshot shared (read only) by all requests, which is only
+    // ever replaced as a whole by reloadGraph()
+    private static final AtomicReference<GraphSnapshot> snapshot =
+            new AtomicReference<>();
+
+    // system properties that configure the server, see the class comment
+    public static final String EXECUTOR_PROPERTY = "webapp.executor";
+    public static final String THREADS_PROPERTY = "webapp.threads";
+    public static final String BACKLOG_PROPERTY = "webapp.backlog";
+    public static final String VERBOSE_PROPERTY = "webapp.verbose";
+    // the backlog when webapp.backlog is not set
+    public static final int DEFAULT_BACKLOG = 128;
+    // the socket that a daemon listens on when none is passed to --daemon
+    public static final String DEFAULT_SOCKET = "webapp.sock";
+    // the most pairs of locations of one /batch request
+    public static final int MAX_BATCH_PAIRS = 100_000;
+    // the most origins, and the most destinations, of one /matrix request
+    public static final int MAX_MATRIX_LOCATIONS = 2000;
+    // the most travel times (origins times destinations) of one /matrix
+    // request, which keeps a binary response within 8 MB
+    public static final long MAX_MATRIX_TIMES = 1_000_000;
+
     public static void main(String[] args) throws IOException {
         // expects the port number as a command line argument to this program
         // or if a non-numeric argument is passed treat this like the query
-        // part of a requst URI and display response through standard out
+        // part of a requst URI and display response through standard out,
+        // or --daemon (and optionally a socket path) to run a CGI daemon
+        if(args.length >= 1 && args[0].equals("--daemon")) {
+            reloadGraph(GRAPH_FILE);
+            serveSocket(Path.of(args.length > 1 ? args[1] : DEFAULT_SOCKET));
+            return;
+        }
         if(args.length != 1) {
             throw new IllegalArgumentException("You must pass a command line" +
                     " argument representing the port that this servers should be" +
@@ -48,40 +123,121 @@ public class WebApp {
             return;
         }
 
+        // load the graph once, before the server accepts any requests
+        reloadGraph(GRAPH_FILE);
+
+        System.out.println("Starting Campus Navigator Server...");
+        startServer(portNumber);
+    }
+
+    /**
+     * Creates and starts a server that responds to requests on the provided
+     * port, with the executor and backlog selected by the webapp.executor,
+     * webapp.threads and webapp.backlog system properties.
+     *
+     * @param portNumber the port to bind to, or 0 for any free port
+     * @return the running server, which can be stopped with stopServer()
+     * @throws IOException if the server cannot be bound to this port
+     */
+    public static HttpServer startServer(int portNumber) throws IOException {
+        // without TCP_NODELAY, every small response waits for the client's
+        // delayed ACK (about 40ms), which limits each connection to about 25
+        // requests per second however many threads there are
+        if(System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
         // configure and start server on this port, responding in this way
         InetSocketAddress address = new InetSocketAddress(portNumber);
-        HttpServer server = HttpServer.create(address,8);
+        HttpServer server = HttpServer.create(address,
+                Integer.getInteger(BACKLOG_PROPERTY, DEFAULT_BACKLOG));
         HttpContext context = server.createContext("/");
         context.setHandler( WebApp::requestHandler );
-        System.out.println("Starting Campus Navigator Server...");
+        server.createContext("/batch").setHandler( WebApp::batchHandler );
+        server.createContext("/matrix").setHandler( WebApp::matrixHandler );
+        server.setExecutor(createExecutor(System.getProperty(EXECUTOR_PROPERTY, "pool"),
+                Integer.getInteger(THREADS_PROPERTY,
+                        Runtime.getRuntime().availableProcessors())));
         server.start();
+        return server;
+    }
+
+    /**
+     * Stops a server that startServer() started, and shuts down the executor
+     * it handled requests on, which HttpServer.stop() leaves running.
+     *
+     * @param server the server to stop
+     * @param delay the most seconds to wait for requests that are running
+     */
+    public static void stopServer(HttpServer server, int delay) {
+        server.stop(delay);
+        if(server.getExecutor() instanceof ExecutorService)
+            ((ExecutorService) server.getExecutor()).shutdown();
+    }
+
+    /**
+     * Creates the executor that a server handles its requests on.
+     *
+     * @param kind "pool" for a fixed pool of platform threads, "virtual" for
+     *        a virtual thread per request (which falls back to the pool when
+     *        this Java version has no virtual threads), or "dispatcher" for
+     *        no executor, so that requests run on the dispatcher thread
+     * @param threads the number of threads in the pool
+     * @return the executor, or null for "dispatcher"
+     * @throws IllegalArgumentException if kind is not one of these
+     */
+    public static ExecutorService createExecutor(String kind, int threads) {
+        switch (kind) {
+        case "dispatcher":
+            return null;
+        case "virtual":
+            try {
+                // looked up by name, so that this still compiles for Java 17
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads are not available, using a pool of "
+                        + threads + " threads instead");
+                return newRequestPool(threads);
+            }
+        case "pool":
+            return newRequestPool(threads);
+        default:
+            throw new IllegalArgumentException("Unknown " + EXECUTOR_PROPERTY + ": " + kind
+                    + " (expected pool, virtual or dispatcher)");
+        }
+    }
+
+    // creates a fixed pool of daemon threads named request-1, request-2, ...
+    private static ExecutorService newRequestPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "request-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(1, threads), factory);
     }
 
     // http request handler handler for the context "/"
     public static void requestHandler(HttpExchange exchange) {
-        System.out.println("Full URL: " + exchange.getRequestURI());
+        boolean verbose = Boolean.getBoolean(VERBOSE_PROPERTY);
+        if(verbose)
+            System.out.println("Full URL: " + exchange.getRequestURI());
         try {
 
 
             // extract the query (part of URI after?) part of URI
             String query = exchange.getRequestURI().getQuery();
-            System.out.println("Received Request with query: " + query);
-            // extract argument key-value pairs from request query
+            if(verbose)
+                System.out.println("Received Request with query: " + query);
+            // extract argument key-value pairs from request query, which is
+            // split before decoding so locations may contain & and =
             Map<String,String> keyValuePairs = parseQuery(
-                    exchange.getRequestURI().getQuery());
-            System.out.println("Query includes args: "+keyValuePairs);
-
-            // create backend and frontend objects to respond to this request
-            FrontendInterface frontend = createWorkingFrontend("./campus.dot");
-            // compute answer to user's requested problem based on query args:
-            String response = generateResponseHTML(keyValuePairs,frontend);
-            // generate HTML prompts for user for make next requests
-            String prompts = generatePromptHTML(frontend);
-
-
+                    exchange.getRequestURI().getRawQuery());
+            if(verbose)
+                System.out.println("Query includes args: "+keyValuePairs);
 
-            // compose response and prompts into a complete html template
-            String html = composeHTML(response,prompts);
+            // respond using the frontend of the current graph snapshot
+            String html = respond(keyValuePairs);
 
 
             // complete exchange response to send this html back to requester
@@ -103,7 +259,285 @@ public class WebApp {
         }
     }
 
-    // reads key value pairs from the query string of a URI into a map
+    /**
+     * Answers a batch of shortest path requests at once (see
+     * BackendInterface.findShortestPaths()), such as a route table. The body
+     * of the request is UTF-8 text with one pair of locations per line, a
+     * start and an end location separated by a tab:
+     *     curl --data-binary @pairs.tsv http://localhost:8080/batch
+     * The response streams one line of JSON per pair, as soon as the search
+     * from its start location finishes, so the pairs arrive grouped by start
+     * location rather than in order:
+     *     {"pair":0,"start":"A","end":"B","cost":105.8,"path":["A","B"]}
+     * with a null cost and an empty path when there is no path. The last line
+     * reports how long the whole batch took:
+     *     {"pairs":250,"starts":12,"millis":8.125}
+     * A batch of more than MAX_BATCH_PAIRS pairs is refused with 413 before
+     * any searching, and a line without a tab with 400.
+     */
+    public static void batchHandler(HttpExchange exchange) {
+        try {
+            List<String> starts = new ArrayList<>();
+            List<String> ends = new ArrayList<>();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    exchange.getRequestBody(), StandardCharsets.UTF_8));
+            for(String line; (line = in.readLine()) != null; ) {
+                if(line.isEmpty()) continue;
+                int tab = line.indexOf('\t');
+                if(tab < 0) {
+                    sendText(exchange, 400, "Expected a start and an end location separated by a tab: "
+                            + line + "\n");
+                    return;
+                }
+                // stops reading as soon as the batch is too large
+                if(starts.size() == MAX_BATCH_PAIRS) {
+                    sendText(exchange, 413, "At most " + MAX_BATCH_PAIRS + " pairs are allowed\n");
+                    return;
+                }
+                starts.add(line.substring(0, tab));
+                ends.add(line.substring(tab + 1));
+            }
+
+            BackendInterface backend = currentSnapshot().getBackend();
+            exchange.getResponseHeaders().set("Content-Type",
+                    "application/x-ndjson; charset=utf-8");
+            // a length of 0 sends the response in chunks, as it is written
+            exchange.sendResponseHeaders(200, 0);
+            try(Writer out = new BufferedWriter(new OutputStreamWriter(
+                    exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                long started = System.nanoTime();
+                backend.findShortestPaths(starts, ends, (index, path) -> {
+                    try {
+                        out.write(pathJSON(index, starts.get(index), ends.get(index), path));
+                        out.write('\n');
+                    } catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                double millis = (System.nanoTime() - started) / 1e6;
+                out.write(String.format(Locale.ROOT, "{\"pairs\":%d,\"starts\":%d,\"millis\":%.3f}%n",
+                        starts.size(), new HashSet<>(starts).size(), millis));
+            }
+        } catch (Exception e) {
+            System.out.println("Exception Thrown: "+e.toString());
+            e.printStackTrace();
+            // attempt to send 500 Server Error Response to client, which
+            // fails when part of the response was sent already
+            try { exchange.sendResponseHeaders(500,-1); }
+            catch(IOException i){} // do nothing when this fails
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers a table of walking times from several origins to several
+     * destinations at once (see BackendInterface.findTravelTimes()). The body
+     * of the request is UTF-8 text with one location per line, each marked as
+     * an origin or a destination with a word and a tab:
+     *     origin	Memorial Union
+     *     destination	Computer Sciences and Statistics
+     * and when there are no destination lines, the origins are the
+     * destinations too. The response is one JSON object, with a row of times
+     * per origin and null where there is no path:
+     *     {"origins":["A","B"],"destinations":["C"],"times":[[105.8],[null]],"millis":0.412}
+     * With ?format=binary the response is instead the number of rows and of
+     * columns as two 32-bit integers, followed by the times row by row as
+     * 64-bit doubles (infinity where there is no path), all little-endian.
+     * A request with more than MAX_MATRIX_LOCATIONS origins or destinations,
+     * or more than MAX_MATRIX_TIMES times, is refused with 413 before any
+     * searching, and a line that is not an origin or destination with 400.
+     */
+    public static void matrixHandler(HttpExchange exchange) {
+        try {
+            List<String> origins = new ArrayList<>();
+            List<String> destinations = new ArrayList<>();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    exchange.getRequestBody(), StandardCharsets.UTF_8));
+            for(String line; (line = in.readLine()) != null; ) {
+                if(line.isEmpty()) continue;
+                int tab = line.indexOf('\t');
+                String kind = tab < 0 ? line : line.substring(0, tab);
+                if(tab >= 0 && kind.equals("origin")) origins.add(line.substring(tab + 1));
+                else if(tab >= 0 && kind.equals("destination")) destinations.add(line.substring(tab + 1));
+                else {
+                    sendText(exchange, 400, "Expected origin or destination, a tab and a location: "
+                            + line + "\n");
+                    return;
+                }
+                // stops reading as soon as the request is too large
+                if(origins.size() > MAX_MATRIX_LOCATIONS || destinations.size() > MAX_MATRIX_LOCATIONS) {
+                    sendText(exchange, 413, "At most " + MAX_MATRIX_LOCATIONS
+                            + " origins and " + MAX_MATRIX_LOCATIONS + " destinations are allowed\n");
+                    return;
+                }
+            }
+            if(destinations.isEmpty()) destinations = origins;
+            long count = (long) origins.size() * destinations.size();
+            if(count > MAX_MATRIX_TIMES) {
+                sendText(exchange, 413, "At most " + MAX_MATRIX_TIMES + " travel times are allowed, not "
+                        + origins.size() + " by " + destinations.size() + "\n");
+                return;
+            }
+
+            long started = System.nanoTime();
+            double[][] times = currentSnapshot().getBackend().findTravelTimes(origins, destinations);
+            double millis = (System.nanoTime() - started) / 1e6;
+
+            Map<String,String> keyValuePairs = parseQuery(exchange.getRequestURI().getRawQuery());
+            byte[] bytes;
+            if("binary".equals(keyValuePairs.get("format"))) {
+                // within an int, since count is at most MAX_MATRIX_TIMES
+                ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(8 + 8 * count))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(origins.size()).putInt(destinations.size());
+                for(double[] row : times)
+                    for(double time : row) buffer.putDouble(time);
+                bytes = buffer.array();
+                exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            } else {
+                StringBuilder json = new StringBuilder("{\"origins\":");
+                appendJSONStrings(json, origins).append(",\"destinations\":");
+                appendJSONStrings(json, destinations).append(",\"times\":[");
+                for(int i = 0; i < times.length; i++) {
+                    json.append(i > 0 ? ",[" : "[");
+                    for(int j = 0; j < times[i].length; j++) {
+                        if(j > 0) json.append(',');
+                        json.append(times[i][j] == Double.POSITIVE_INFINITY ? "null" : times[i][j]);
+                    }
+                    json.append(']');
+                }
+                json.append(String.format(Locale.ROOT, "],\"millis\":%.3f}%n", millis));
+                bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            }
+            exchange.sendResponseHeaders(200, bytes.length);
+            try(OutputStream out = exchange.getResponseBody()) { out.write(bytes); }
+        } catch (Exception e) {
+            System.out.println("Exception Thrown: "+e.toString());
+            e.printStackTrace();
+            try { exchange.sendResponseHeaders(500,-1); }
+            catch(IOException i){} // do nothing when this fails
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // sends a plain text response with the given status, such as an error
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) { out.write(bytes); }
+    }
+
+    // appends a list of strings as a JSON array
+    private static StringBuilder appendJSONStrings(StringBuilder json, List<String> texts) {
+        json.append('[');
+        for(int i = 0; i < texts.size(); i++) {
+            if(i > 0) json.append(',');
+            json.append(jsonString(texts.get(i)));
+        }
+        return json.append(']');
+    }
+
+    // describes the result of one pair of a batch as a JSON object
+    private static String pathJSON(int index, String start, String end, PathResult<String> path) {
+        StringBuilder json = new StringBuilder("{\"pair\":").append(index)
+                .append(",\"start\":").append(jsonString(start))
+                .append(",\"end\":").append(jsonString(end))
+                .append(",\"cost\":").append(path.isEmpty() ? "null" : path.getTotalCost())
+                .append(",\"path\":[");
+        List<String> nodes = path.getNodes();
+        for(int i = 0; i < nodes.size(); i++) {
+            if(i > 0) json.append(',');
+            json.append(jsonString(nodes.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    // quotes a string as a JSON string literal
+    private static String jsonString(String text) {
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '"' || c == '\\') json.append('\\').append(c);
+            else if(c < 0x20) json.append(String.format("\\u%04x", (int) c));
+            else json.append(c);
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Answers the request with the provided query arguments, using the
+     * frontend of the current graph snapshot.
+     *
+     * @param keyValuePairs the arguments of the request
+     * @return the complete html page to send back
+     * @throws IOException if the graph or the html template cannot be read
+     */
+    private static String respond(Map<String,String> keyValuePairs) throws IOException {
+        FrontendInterface frontend = currentSnapshot().getFrontend();
+        // compute answer to user's requested problem based on query args:
+        String response = generateResponseHTML(keyValuePairs,frontend);
+        // generate HTML prompts for user for make next requests
+        String prompts = generatePromptHTML(frontend);
+        // compose response and prompts into a complete html template
+        return composeHTML(response,prompts);
+    }
+
+    /**
+     * Answers the queries that index.cgi forwards over a Unix domain socket,
+     * until this JVM is stopped. A client sends the (URL encoded) query string
+     * of one request as a single line, and receives the complete html page,
+     * after which the connection is closed. Queries are answered on the
+     * executor selected by the webapp.executor and webapp.threads properties.
+     * A socket file that was left behind by a daemon that was killed is
+     * replaced, and the socket file is removed when this JVM shuts down.
+     *
+     * @param socket the path of the socket file to listen on
+     * @throws IOException if the socket cannot be bound
+     */
+    public static void serveSocket(Path socket) throws IOException {
+        ExecutorService executor = createExecutor(System.getProperty(EXECUTOR_PROPERTY, "pool"),
+                Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        Files.deleteIfExists(socket);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try { Files.deleteIfExists(socket); }
+                catch(IOException e) {} // nothing left to do when this fails
+            }));
+            System.out.println("Answering queries on " + socket.toAbsolutePath());
+            while(true) {
+                SocketChannel client = server.accept();
+                Runnable task = () -> answerSocketQuery(client);
+                if(executor == null) task.run(); else executor.execute(task);
+            }
+        }
+    }
+
+    // reads one query line from a socket client, and writes the page back
+    private static void answerSocketQuery(SocketChannel client) {
+        try(client) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(client), StandardCharsets.UTF_8));
+            String query = in.readLine();
+            String html;
+            try {
+                html = respond(parseQuery(query));
+            } catch(Exception e) {
+                html = "Exception Thrown: " + e;
+            }
+            ByteBuffer bytes = ByteBuffer.wrap((html + "\n").getBytes(StandardCharsets.UTF_8));
+            while(bytes.hasRemaining())
+                client.write(bytes);
+        } catch(IOException e) {
+            System.out.println("Exception Thrown: "+e.toString());
+        }
+    }
+
+    // reads key value pairs from the (still URL encoded) query string of a
+    // URI into a map, decoding each key and value
     private static Map<String,String> parseQuery(String query) {
         HashMap<String,String> map = new HashMap<>();
         if(query != null && query.contains("="))
@@ -113,18 +547,41 @@ public class WebApp {
                     throw new IllegalArgumentException("Unable to split "+
                             "arg: " + arg+" into a key value pair around a "+
                             "single = delimiter.");
-                map.put(pair[0],pair[1]);
+                map.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair[1], StandardCharsets.UTF_8));
             });
         return map;
     }
 
-    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap
-    private static FrontendInterface createWorkingFrontend(String filename) throws IOException {
-        GraphADT<String,Double> graph = new DijkstraGraph<>();
-        BackendInterface backend = new Backend(graph);
-        backend.loadGraphData(filename);
-        FrontendInterface frontend = new Frontend(backend);
-        return frontend;
+    /**
+     * Loads a new graph snapshot from the provided dot file and then swaps it
+     * in for all requests that start after this method returns. Loading
+     * happens before the swap, so requests that are already running are
+     * never blocked and keep using the snapshot they started with.
+     *
+     * @param filename the path to a dot file to read graph data from
+     * @return the newly loaded snapshot
+     * @throws IOException if there was any problem reading from this file,
+     *         in which case the current snapshot is left in place
+     */
+    public static GraphSnapshot reloadGraph(String filename) throws IOException {
+        GraphSnapshot loaded = GraphSnapshot.load(filename);
+        snapshot.set(loaded);
+        System.out.println("Loaded graph snapshot from " + filename);
+        return loaded;
+    }
+
+    // returns the current graph snapshot, loading the first one when needed
+    private static GraphSnapshot currentSnapshot() throws IOException {
+        GraphSnapshot current = snapshot.get();
+        if(current == null) {
+            GraphSnapshot loaded = GraphSnapshot.load(GRAPH_FILE);
+            // another thread may have finished loading first, keep theirs
+            if(!snapshot.compareAndSet(null, loaded))
+                return snapshot.get();
+            return loaded;
+        }
+        return current;
     }
 
     // creates the html response for the kind of question requeted (if any)
@@ -133,9 +590,16 @@ public class WebApp {
         String response = "<div id=\"response\">";
         if(keyValuePairs.containsKey("start") &&
                 keyValuePairs.containsKey("end")) {
-            response += frontend.generateShortestPathResponseHTML(
-                    keyValuePairs.get("start"),
-                    keyValuePairs.get("end")) + "</div>";
+            // the prompt asks for a number of alternative routes as well
+            if(keyValuePairs.containsKey("alternatives"))
+                response += frontend.generateAlternativePathsResponseHTML(
+                        keyValuePairs.get("start"),
+                        keyValuePairs.get("end"),
+                        keyValuePairs.get("alternatives")) + "</div>";
+            else
+                response += frontend.generateShortestPathResponseHTML(
+                        keyValuePairs.get("start"),
+                        keyValuePairs.get("end")) + "</div>";
             // compute response for other request
         } else if(keyValuePairs.containsKey("from")) {
             response+=frontend.generateClosestDestinationsFromAllResponseHTML(
@@ -175,19 +639,12 @@ public class WebApp {
     // the method below, and then displaying a response to standard out.
     public static void handleSingleResponse(String query) {
         try {
-            query = URLDecoder.decode(query, StandardCharsets.UTF_8);
             Map<String,String> keyValuePairs = parseQuery(query);
 
-            // create backend and frontend objects to respond to this request
-            FrontendInterface frontend = createWorkingFrontend("./campus.dot");
-            // compute answer to user's requested problem based on query args:
-            String response = generateResponseHTML(keyValuePairs,frontend);
-            // generate HTML prompts for user for make next requests
-            String prompts = generatePromptHTML(frontend);
-            // compose response and prompts into a complete html template
-            String html = composeHTML(response,prompts);
-
-            System.out.println(html);
+            // this JVM answers one query only, so nothing is precomputed
+            snapshot.set(GraphSnapshot.load(GRAPH_FILE, false));
+            // respond using the frontend of the current graph snapshot
+            System.out.println(respond(keyValuePairs));
 
             // unless something goes wrong, in which case report problem
         } catch (Exception e) {
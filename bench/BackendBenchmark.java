@@ -0,0 +1,61 @@
+package campus;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the Backend operations that do the most work per request: finding
+ * the closest destination or the minimax meeting point from a few start
+ * locations, and loading a graph from a dot file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BackendBenchmark {
+
+    @Param({"campus", "grid:10000", "scalefree:10000"})
+    public String graphSpec;
+
+    // how many start locations each closest destination request uses
+    @Param({"3"})
+    public int startCount;
+
+    private String dotFile;
+    private Backend backend;
+    private List<String> starts;
+
+    @Setup(Level.Trial)
+    public void loadGraph() throws IOException {
+        dotFile = SyntheticGraphs.dotFile(graphSpec);
+        backend = new Backend(new DijkstraGraph<>());
+        backend.loadGraphData(dotFile);
+        List<String> locations = backend.getListOfAllLocations();
+        Random random = new Random(400);
+        starts = new java.util.ArrayList<>();
+        for (int i = 0; i < startCount; i++)
+            starts.add(locations.get(random.nextInt(locations.size())));
+    }
+
+    @Benchmark
+    public String getClosestDestinationFromAll() {
+        return backend.getClosestDestinationFromAll(starts);
+    }
+
+    @Benchmark
+    public MeetingPoint<String> findMinimaxMeetingPoint() {
+        return backend.findMeetingPoint(starts, MeetingPoint.Criterion.MAX, null);
+    }
+
+    @Benchmark
+    public Backend loadGraphData() throws IOException {
+        Backend fresh = new Backend(new DijkstraGraph<>());
+        fresh.loadGraphData(dotFile);
+        return fresh;
+    }
+}
@@ -0,0 +1,47 @@
+package campus;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures how fast DotParser reads large dot files, without building a
+ * graph: every edge is only handed to a listener that sums its weight. The
+ * score is milliseconds per file, so the edges per second are the number of
+ * edges in the file divided by the score (in seconds).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class DotParserBenchmark {
+
+    @Param({"grid:1000000", "scalefree:1000000"})
+    public String graphSpec;
+
+    private String dotFile;
+
+    @Setup(Level.Trial)
+    public void writeGraph() throws IOException {
+        dotFile = SyntheticGraphs.dotFile(graphSpec);
+    }
+
+    @Benchmark
+    public double parseFile() throws IOException {
+        double[] total = new double[1];
+        DotParser parser = new DotParser(new DotParser.Listener() {
+            @Override
+            public void node(String name) {
+            }
+
+            @Override
+            public void edge(String source, String target, double weight) {
+                total[0] += weight;
+            }
+        });
+        parser.parseFile(dotFile);
+        return total[0] + parser.getEdgeCount();
+    }
+}
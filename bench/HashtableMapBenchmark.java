@@ -0,0 +1,61 @@
+package campus;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures MapADT lookups of existing keys, and filling an empty map (which
+ * includes every resize on the way) with node names like the ones that
+ * DijkstraGraph stores. Both the chained HashtableMap and the open addressing
+ * ProbingHashtableMap are measured, so they can be compared side by side.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashtableMapBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"HashtableMap", "ProbingHashtableMap"})
+    public String mapType;
+
+    private String[] keys;
+    private MapADT<String, Integer> map;
+    private int next;
+
+    private MapADT<String, Integer> newMap() {
+        if (mapType.equals("HashtableMap"))
+            return new HashtableMap<>();
+        return new ProbingHashtableMap<>();
+    }
+
+    @Setup(Level.Trial)
+    public void fillMap() {
+        keys = new String[size];
+        map = newMap();
+        for (int i = 0; i < size; i++) {
+            keys[i] = "Location " + i;
+            map.put(keys[i], i);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public Integer get() {
+        next = (next + 1) % size;
+        return map.get(keys[next]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MapADT<String, Integer> putWithResize() {
+        MapADT<String, Integer> fresh = newMap();
+        for (int i = 0; i < size; i++)
+            fresh.put(keys[i], i);
+        return fresh;
+    }
+}
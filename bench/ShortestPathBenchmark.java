@@ -0,0 +1,101 @@
+package campus;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures point to point shortest path queries on campus.dot and on the
+ * synthetic graphs from SyntheticGraphs, cycling through a fixed list of
+ * connected start and end locations. Throughput, latency percentiles (from
+ * SampleTime mode) and allocation rate (with -prof gc) are reported for each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    @Param({"campus", "grid:10000", "scalefree:10000", "grid:1000000",
+            "scalefree:1000000", "grid:10000000", "scalefree:10000000"})
+    public String graphSpec;
+
+    // how DijkstraGraph searches: "forward", "bidirectional", "landmarks"
+    // (A* with 16 ALT landmarks) or "hierarchy" (a contraction hierarchy),
+    // the preprocessing for the last two is not measured
+    @Param({"forward", "bidirectional", "landmarks", "hierarchy"})
+    public String mode;
+
+    private DijkstraGraph<String, Double> graph;
+    private CompactGraph<String> compact;
+    private DijkstraEngine engine;
+    private String[][] pairs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadGraph() throws IOException {
+        graph = SyntheticGraphs.load(graphSpec);
+        graph.setBidirectional(mode.equals("bidirectional"));
+        if (mode.equals("landmarks"))
+            graph.setHeuristic(LandmarkHeuristic.build(graph,
+                    LandmarkHeuristic.DEFAULT_LANDMARK_COUNT));
+        if (mode.equals("hierarchy"))
+            graph.setContractionHierarchy(ContractionHierarchy.build(graph));
+        compact = CompactGraph.freeze(graph);
+        engine = compact.acquireEngine();
+        pairs = SyntheticGraphs.connectedPairs(compact, 256);
+        next = 0;
+    }
+
+    // cycles through the query pairs
+    private String[] nextPair() {
+        String[] pair = pairs[next];
+        next = (next + 1) % pairs.length;
+        return pair;
+    }
+
+    @Benchmark
+    public List<String> shortestPathData() {
+        String[] pair = nextPair();
+        return graph.shortestPathData(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public double shortestPathCost() {
+        String[] pair = nextPair();
+        return graph.shortestPathCost(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public List<String> compactShortestPathData() {
+        String[] pair = nextPair();
+        return compact.shortestPathData(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public double compactShortestPathCost() {
+        String[] pair = nextPair();
+        return compact.shortestPathCost(pair[0], pair[1]);
+    }
+
+    // searches through one engine that is reused for every search, which
+    // should allocate 0 bytes per operation (see gc.alloc.rate.norm)
+    @Benchmark
+    public double engineSearch() {
+        String[] pair = nextPair();
+        int target = compact.indexOf(pair[1]);
+        engine.search(compact.indexOf(pair[0]), target);
+        return engine.distance(target);
+    }
+
+    // five alternatives are independent of the search mode, which only
+    // affects the graph's own point to point searches
+    @Benchmark
+    public List<PathResult<String>> fiveShortestPaths() {
+        String[] pair = nextPair();
+        return graph.kShortestPaths(pair[0], pair[1], 5);
+    }
+}
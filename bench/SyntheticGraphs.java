@@ -0,0 +1,146 @@
+package campus;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible synthetic graphs for the benchmarks, in the same dot
+ * format as campus.dot. A graph is described by a spec string:
+ * - "campus" is the campus.dot file itself
+ * - "grid:E" is a square grid, where every node connects to its (up to) four
+ *   neighbors, with about E edges
+ * - "scalefree:E" is a Barabasi-Albert preferential attachment graph, where
+ *   each new node connects both ways to 3 existing nodes, with about E edges
+ * Edge weights are random values between 1 and 100 seconds.
+ */
+public class SyntheticGraphs {
+
+    // each new scale free node connects to this many existing nodes
+    private static final int ATTACHMENTS = 3;
+
+    /**
+     * Returns the name of a dot file holding the graph described by spec,
+     * generating a temporary file when the graph is a synthetic one.
+     *
+     * @param spec the description of the graph
+     * @return the path to a dot file with that graph
+     * @throws IOException when the file cannot be written
+     */
+    public static String dotFile(String spec) throws IOException {
+        if (spec.equals("campus"))
+            return "campus.dot";
+        String[] parts = spec.split(":");
+        int edges = Integer.parseInt(parts[1]);
+
+        java.io.File file = java.io.File.createTempFile(parts[0] + edges + "-", ".dot");
+        file.deleteOnExit();
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+            EdgeWriter writer = new EdgeWriter(out);
+            out.write("digraph " + parts[0] + " {\n");
+            if (parts[0].equals("grid"))
+                grid(edges, writer);
+            else
+                scaleFree(edges, writer);
+            out.write("}\n");
+        }
+        return file.getPath();
+    }
+
+    // writes edges with random weights as dot lines, without keeping them
+    private static class EdgeWriter {
+        private final BufferedWriter out;
+        private final Random random = new Random(400);
+
+        EdgeWriter(BufferedWriter out) {
+            this.out = out;
+        }
+
+        void edge(String pred, String succ) throws IOException {
+            out.write("\t\"" + pred + "\" -> \"" + succ + "\" [seconds="
+                    + (1 + random.nextInt(9900) / 100.0) + "];\n");
+        }
+    }
+
+    /**
+     * Loads the graph described by spec into a new DijkstraGraph.
+     *
+     * @param spec the description of the graph
+     * @return the loaded graph
+     * @throws IOException when a dot file cannot be read or written
+     */
+    public static DijkstraGraph<String, Double> load(String spec) throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend(graph).loadGraphData(dotFile(spec));
+        return graph;
+    }
+
+    // writes the edges of a square grid with about that many edges
+    private static void grid(int edges, EdgeWriter out) throws IOException {
+        int side = Math.max(2, (int) Math.sqrt(edges / 4.0));
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                String node = r + "," + c;
+                if (r > 0) out.edge(node, (r - 1) + "," + c);
+                if (r < side - 1) out.edge(node, (r + 1) + "," + c);
+                if (c > 0) out.edge(node, r + "," + (c - 1));
+                if (c < side - 1) out.edge(node, r + "," + (c + 1));
+            }
+        }
+    }
+
+    // writes the edges of a preferential attachment graph with about that
+    // many edges
+    private static void scaleFree(int edges, EdgeWriter out) throws IOException {
+        int nodes = Math.max(ATTACHMENTS + 1, edges / (2 * ATTACHMENTS));
+        Random random = new Random(400);
+        // every endpoint of every edge so far, so a uniformly random entry
+        // picks an existing node with probability proportional to its degree
+        int[] endpoints = new int[2 * ATTACHMENTS * nodes + 2 * ATTACHMENTS];
+        int endpointCount = 0;
+        for (int v = 0; v <= ATTACHMENTS; v++) {
+            for (int w = 0; w < v; w++) {
+                out.edge("n" + v, "n" + w);
+                out.edge("n" + w, "n" + v);
+                endpoints[endpointCount++] = v;
+                endpoints[endpointCount++] = w;
+            }
+        }
+        for (int v = ATTACHMENTS + 1; v < nodes; v++) {
+            int start = endpointCount;
+            for (int i = 0; i < ATTACHMENTS; i++) {
+                int w = endpoints[random.nextInt(start)];
+                out.edge("n" + v, "n" + w);
+                out.edge("n" + w, "n" + v);
+                endpoints[endpointCount++] = v;
+                endpoints[endpointCount++] = w;
+            }
+        }
+    }
+
+    /**
+     * Picks reproducible random pairs of nodes that are connected by a path.
+     *
+     * @param graph the graph to pick nodes from
+     * @param count the number of pairs to pick
+     * @return count pairs of {start, end} node data
+     */
+    public static String[][] connectedPairs(GraphADT<String, Double> graph, int count) {
+        List<String> nodes = graph.getAllNodes();
+        Random random = new Random(400);
+        String[][] pairs = new String[count][];
+        for (int i = 0; i < count; ) {
+            String start = nodes.get(random.nextInt(nodes.size()));
+            String end = nodes.get(random.nextInt(nodes.size()));
+            try {
+                graph.shortestPathCost(start, end);
+                pairs[i++] = new String[] {start, end};
+            } catch (java.util.NoSuchElementException e) {
+                // pick another pair
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,101 @@
+package campus;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how many shortest path requests per second a WebApp server
+ * answers, with 1, 2, 4, ... request threads up to twice the number of
+ * processors. Every thread reads the same graph snapshot, so the throughput
+ * should grow with the number of threads until every processor is busy.
+ * Each step starts its own server on a free port, and keeps twice as many
+ * clients as request threads sending requests for random pairs of campus
+ * locations. Run from the directory that holds campus.dot and template.html:
+ *
+ *     make runLoadTest LOAD_ARGS="10"
+ *     make runLoadTest JAVA="java -Dwebapp.executor=virtual"
+ *
+ * The optional argument is the number of seconds that each step measures.
+ */
+public class WebAppLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<String> locations = WebApp.reloadGraph("campus.dot").getBackend()
+                .getListOfAllLocations();
+
+        PrintStream out = System.out;
+        out.println(processors + " processors, executor "
+                + System.getProperty(WebApp.EXECUTOR_PROPERTY, "pool"));
+        out.println("threads  clients  requests/s  ms/request");
+        for (int threads = 1; threads <= 2 * processors; threads *= 2) {
+            System.setProperty(WebApp.THREADS_PROPERTY, Integer.toString(threads));
+            // the server prints nothing per request, but keep its output out of the table
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            HttpServer server = WebApp.startServer(0);
+            try {
+                int clients = 2 * threads;
+                String base = "http://localhost:" + server.getAddress().getPort() + "/?";
+                run(base, locations, clients, 1); // warm up
+                long requests = run(base, locations, clients, seconds);
+                out.printf("%7d  %7d  %10.1f  %10.3f%n", threads, clients,
+                        requests / (double) seconds, 1000.0 * seconds * clients / requests);
+            } finally {
+                WebApp.stopServer(server, 0);
+                System.setOut(out);
+            }
+        }
+    }
+
+    // sends requests from clients threads for seconds, and counts the answers
+    private static long run(String base, List<String> locations, int clients, int seconds)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong answered = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Random random = new Random(i);
+            Thread thread = new Thread(() -> {
+                while (running.get()) {
+                    String start = locations.get(random.nextInt(locations.size()));
+                    String end = locations.get(random.nextInt(locations.size()));
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(base
+                            + "start=" + URLEncoder.encode(start, StandardCharsets.UTF_8)
+                            + "&end=" + URLEncoder.encode(end, StandardCharsets.UTF_8))).build();
+                    try {
+                        HttpResponse<Void> response =
+                                client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200 && running.get())
+                            answered.incrementAndGet();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads)
+            thread.join();
+        return Math.max(1, answered.get());
+    }
+}
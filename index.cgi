@@ -1,5 +1,36 @@
 #!/usr/bin/env bash
 
+# the socket of a resident daemon (java WebApp --daemon) in this directory
+SOCKET="webapp.sock"
+QUERY="${QUERY_STRING:-no:args}"
+# the seconds to wait for the daemon's answer, enough for the slowest query
+TIMEOUT=60
+
 echo "Content-type: text/html"
 echo ""
-java WebApp "${QUERY_STRING:-no:args}" 2>&1
+
+# forward the query to the daemon when one is listening, which answers
+# without starting a JVM and loading the graph for every request
+if [ -S "$SOCKET" ]; then
+    if command -v socat > /dev/null; then
+        # socat stops reading half a second after sending the query unless
+        # -t gives the daemon longer to answer
+        RESPONSE=$(printf '%s\n' "$QUERY" | socat -t "$TIMEOUT" - "UNIX-CONNECT:$SOCKET" 2> /dev/null)
+    elif command -v nc > /dev/null; then
+        # the OpenBSD nc needs -N to close its end once the query is sent,
+        # which other variants (such as ncat) do by themselves
+        NC_OPTIONS=(-U)
+        if nc -h 2>&1 | grep -q -- '^[[:space:]]*-N'; then
+            NC_OPTIONS=(-N -U)
+        fi
+        RESPONSE=$(printf '%s\n' "$QUERY" | nc "${NC_OPTIONS[@]}" "$SOCKET" 2> /dev/null)
+    fi
+    # an empty answer means the daemon is gone or failed, so fall back
+    if [ -n "$RESPONSE" ]; then
+        printf '%s\n' "$RESPONSE"
+        exit 0
+    fi
+fi
+
+# otherwise answer this one request in a new JVM
+java WebApp "$QUERY" 2>&1